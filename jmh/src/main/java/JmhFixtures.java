@@ -0,0 +1,79 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+
+// Brücke für die JMH-Benchmarks in bench.*: JMH verlangt ein Package, aus einem Package lassen
+// sich die Spielklassen im Default-Package aber nicht importieren. Die Benchmarks holen sich
+// hier einmal im @Setup per Reflection fertig aufgebaute Operationen; gemessen wird nur der
+// Aufruf über das java.util.function-Interface. Jede Operation liefert einen Wert aus dem
+// Ergebnis, damit JMH ihn konsumieren kann und nichts wegoptimiert wird.
+public final class JmhFixtures {
+    private static final int LEVEL_HEIGHT = 5;
+
+    private JmhFixtures() {
+    }
+
+    // Level mit width Spalten erzeugen: "image" aus der Karte im Speicher, "bmp" oder "lvl"
+    // von der Platte
+    public static Supplier<Object> loadLevel(String format, int width) throws IOException {
+        BufferedImage map = Benchmarks.createLevelMap(width, LEVEL_HEIGHT);
+        if (format.equals("image"))
+            return () -> new Level(map);
+
+        File dir = Files.createTempDirectory("platformer-jmh").toFile();
+        dir.deleteOnExit();
+        File bmp = new File(dir, "level" + width + ".bmp");
+        ImageIO.write(map, "bmp", bmp);
+        bmp.deleteOnExit();
+        if (format.equals("bmp"))
+            return () -> new Level(bmp.getPath());
+
+        String lvl = LevelConverter.convert(bmp.getPath());
+        new File(lvl).deleteOnExit();
+        return () -> new Level(lvl);
+    }
+
+    // Ein Simulations-Tick mit dem Standard-Skript, liefert den Zustands-Hash
+    public static LongSupplier tick(int width) {
+        Simulation simulation = new Simulation(new Level(Benchmarks.createLevelMap(width, LEVEL_HEIGHT)));
+        HeadlessRunner.InputScript script = new HeadlessRunner.InputScript(HeadlessRunner.DEFAULT_SCRIPT);
+        return () -> {
+            simulation.tick(script.get(simulation.getTickCount()));
+            return simulation.getStateHash();
+        };
+    }
+
+    // Ein Physik-Schritt (Bewegung und Kollision) für viele Entities auf einem Thread
+    public static LongSupplier physicsStep(int width, int entities) {
+        Level level = new Level(Benchmarks.createLevelMap(width, LEVEL_HEIGHT));
+        EntityWorld world = Benchmarks.createEntities(level, entities);
+        PhysicsSystem physics = new PhysicsSystem(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        return () -> {
+            physics.step(world, level, 1f);
+            return Float.floatToIntBits(world.getX(0)) + Float.floatToIntBits(world.getY(entities - 1));
+        };
+    }
+
+    // Ein Tick und ein Frame offscreen, Java2D oder Software-Framebuffer. Liefert ein Pixel.
+    public static IntSupplier draw(int width, boolean software) {
+        Simulation simulation = new Simulation(new Level(Benchmarks.createLevelMap(width, LEVEL_HEIGHT)));
+        HeadlessRunner.InputScript script = new HeadlessRunner.InputScript(HeadlessRunner.DEFAULT_SCRIPT);
+        GameRenderer renderer = new GameRenderer(simulation, software);
+        BufferedImage frame = new BufferedImage(GameRenderer.VIEWPORT_WIDTH, GameRenderer.VIEWPORT_HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = frame.createGraphics();
+        return () -> {
+            simulation.tick(script.get(simulation.getTickCount()));
+            renderer.draw(g2d, 0.5f);
+            return frame.getRGB(GameRenderer.VIEWPORT_WIDTH / 2, GameRenderer.VIEWPORT_HEIGHT / 2);
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Ein Physik-Schritt (Bewegung und Kollision gegen das Tile-Raster) für viele Entities
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dplatformer.audio=off"})
+public class CollisionBenchmark {
+    @Param({"256", "1024", "4096"})
+    int width;
+
+    @Param({"1000", "10000"})
+    int entities;
+
+    private LongSupplier step;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        step = Fixtures.create("physicsStep", width, entities);
+    }
+
+    @Benchmark
+    public long step() {
+        return step.getAsLong();
+    }
+}
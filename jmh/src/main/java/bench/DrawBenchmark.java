@@ -0,0 +1,43 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Tick und offscreen gezeichneter Frame im Viewport, die Kamera scrollt mit dem Skript
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dplatformer.audio=off"})
+public class DrawBenchmark {
+    @Param({"64", "256", "1024", "4096"})
+    int width;
+
+    @Param({"java2d", "software"})
+    String renderer;
+
+    private IntSupplier draw;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        draw = Fixtures.create("draw", width, renderer.equals("software"));
+    }
+
+    @Benchmark
+    public int draw() {
+        return draw.getAsInt();
+    }
+}
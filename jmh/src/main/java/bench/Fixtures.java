@@ -0,0 +1,19 @@
+package bench;
+
+import java.lang.reflect.Method;
+
+// Holt eine Operation aus JmhFixtures (Default-Package, daher nur per Reflection erreichbar)
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T create(String name, Object... args) throws ReflectiveOperationException {
+        Class<?> fixtures = Class.forName("JmhFixtures");
+        for (Method method : fixtures.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == args.length)
+                return (T) method.invoke(null, args);
+        }
+        throw new NoSuchMethodException("JmhFixtures." + name);
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.concurrent.ForkJoinPool;
+
+// Prüft, dass der Kollisionspfad nichts allokiert: ein Simulations-Tick mit Eingabe,
+// Spielfigur-Physik und Kollision sowie ein Physik-Schritt für viele Entities, jeweils für
+// mehrere Levelbreiten. Beendet sich mit Exit-Code 1, sobald eine Messung über 0 B/op liegt.
+// Läuft mit "gradle check", von Hand:
+// java -Djava.awt.headless=true -Dplatformer.audio=off AllocationCheck
+public class AllocationCheck {
+    private static final int[] LEVEL_WIDTHS = {64, 1024, 4096};
+    private static final int LEVEL_HEIGHT = 5;
+    private static final int ITERATIONS = 50_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(final String[] args) {
+        boolean ok = true;
+        for (int width : LEVEL_WIDTHS) {
+            Level level = new Level(Benchmarks.createLevelMap(width, LEVEL_HEIGHT));
+
+            Simulation simulation = new Simulation(level);
+            HeadlessRunner.InputScript script = new HeadlessRunner.InputScript(HeadlessRunner.DEFAULT_SCRIPT);
+            ok &= check("tick", width, minAllocatedBytes(ITERATIONS,
+                    () -> simulation.tick(script.get(simulation.getTickCount()))));
+
+            // Sequentiell, der ForkJoinPool würde auf anderen Threads allokieren
+            EntityWorld world = Benchmarks.createEntities(level, 1_000);
+            PhysicsSystem physics = new PhysicsSystem(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+            ok &= check("physics", width, minAllocatedBytes(ITERATIONS / 10, () -> physics.step(world, level, 1f)));
+        }
+
+        if (!ok) {
+            System.out.println("Allocation check failed");
+            System.exit(1);
+        }
+        System.out.println("Allocation check passed");
+    }
+
+    // Kleinster Wert aus mehreren Runden: eine Allokation pro Tick taucht in jeder Runde auf,
+    // einzelne Objekte aus dem JIT-Compiler während des Aufwärmens nur in einer
+    private static double minAllocatedBytes(int iterations, Runnable op) {
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < ROUNDS && min > 0; i++) {
+            min = Math.min(min, Benchmarks.allocatedBytes(iterations, op));
+        }
+        return min;
+    }
+
+    private static boolean check(String name, int width, double bytes) {
+        boolean ok = bytes <= 0;
+        System.out.printf("%-8s  %5d tiles wide  %10.5f B/op  %s%n", name, width, bytes, ok ? "ok" : "FAIL");
+        return ok;
+    }
+}
@@ -0,0 +1,52 @@
+import java.awt.Graphics2D;
+
+// Zeichnet die animierten Tiles (z.B. Wasser) über den statischen Levelausschnitt.
+// LevelStripRenderer und LevelRenderer lassen diese Zellen frei, ihr Cache bleibt also
+// gültig. Pro Frame werden nur die sichtbaren Spalten angesehen und nur in Spalten mit
+// animierten Zellen die Zeilen durchsucht; die Levelgröße spielt keine Rolle.
+public class AnimatedTileRenderer {
+    private final Level level;
+    private final int viewportWidth;
+
+    // Für die Messung: so viele Zellen wurden im letzten Frame gezeichnet
+    private int cellsDrawn = 0;
+
+    public AnimatedTileRenderer(Level level, int viewportWidth) {
+        this.level = level;
+        this.viewportWidth = viewportWidth;
+    }
+
+    public int getCellsDrawn() {
+        return cellsDrawn;
+    }
+
+    // frame: Animationsschritt, siehe Level.ANIMATION_TICKS
+    public void draw(Graphics2D g2d, int offsetX, int frame) {
+        int tileSize = level.tileSize;
+        int first = Math.max(level.getColumnStart(), offsetX / tileSize);
+        int last = Math.min(level.getColumnEnd() - 1, (offsetX + viewportWidth - 1) / tileSize);
+
+        cellsDrawn = 0;
+        for (int column = first; column <= last; column++) {
+            if (level.getAnimatedCount(column) == 0)
+                continue;
+
+            int x = column * tileSize - offsetX;
+            for (int row = 0; row < level.getGridHeight(); row++) {
+                if (!level.isAnimatedCell(column, row))
+                    continue;
+
+                // Ganze Zelle neu, Hintergrundebene zuerst
+                int background = level.getBackgroundTileIndex(column, row);
+                if (background >= 0) {
+                    g2d.drawImage(level.getTileFrame(background, frame), x, row * tileSize, null);
+                }
+                int tileIndex = level.getTileIndex(column, row);
+                if (tileIndex >= 0) {
+                    g2d.drawImage(level.getTileFrame(tileIndex, frame), x, row * tileSize, null);
+                }
+                cellsDrawn++;
+            }
+        }
+    }
+}
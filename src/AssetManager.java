@@ -0,0 +1,154 @@
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+// Zentrale Stelle für Bilder: Pfade werden einmal aufgelöst, Bilder parallel
+// geladen, pro Schlüssel nur einmal im Speicher gehalten und in ein zum
+// Bildschirm passendes Format umgewandelt.
+// Schlüssel sind Pfade relativ zum assets-Ordner, z.B. "Tiles/grassMid.png".
+public class AssetManager {
+    // Verzeichnisse, in denen der komplette Schlüssel gesucht wird
+    private static final String[] ASSET_ROOTS = {
+            "./assets/",
+            "/Users/philipp/Downloads/Step2/assets/"
+    };
+    // Verzeichnisse, in denen nur nach dem Dateinamen gesucht wird
+    private static final String[] FALLBACK_DIRS = {
+            "./",
+            "./assets/",
+            "./Player/"
+    };
+
+    private static AssetManager instance;
+
+    private final ExecutorService executor;
+    private final Map<String, Future<BufferedImage>> images = new ConcurrentHashMap<>();
+    private final Map<String, Long> loadNanos = new ConcurrentHashMap<>();
+    private final GraphicsConfiguration screenConfig;
+
+    public static synchronized AssetManager getInstance() {
+        if (instance == null) {
+            instance = new AssetManager();
+        }
+        return instance;
+    }
+
+    private AssetManager() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "asset-loader-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        if (GraphicsEnvironment.isHeadless()) {
+            screenConfig = null;
+        } else {
+            screenConfig = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+        }
+    }
+
+    // Startet das Laden im Hintergrund, bereits angefragte Schlüssel werden nicht neu geladen
+    public Future<BufferedImage> request(String key) {
+        return images.computeIfAbsent(key, k -> executor.submit(() -> load(k)));
+    }
+
+    public void preload(String... keys) {
+        for (String key : keys) {
+            request(key);
+        }
+    }
+
+    // Wartet auf das Bild, null wenn es nicht gefunden oder gelesen werden konnte
+    public BufferedImage getImage(String key) {
+        try {
+            return request(key).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Error loading " + key + ": " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    // Ladezeiten pro Schlüssel in Millisekunden, sortiert
+    public Map<String, Double> getLoadTimes() {
+        Map<String, Double> result = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : loadNanos.entrySet()) {
+            result.put(entry.getKey(), entry.getValue() / 1_000_000.0);
+        }
+        return result;
+    }
+
+    public void printLoadReport() {
+        double total = 0;
+        for (Map.Entry<String, Double> entry : getLoadTimes().entrySet()) {
+            System.out.printf("  %-40s %7.2f ms%n", entry.getKey(), entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.printf("Loaded %d assets, %.2f ms summed load time%n", loadNanos.size(), total);
+    }
+
+    private BufferedImage load(String key) throws IOException {
+        long start = System.nanoTime();
+        try {
+            File file = resolve(key);
+            if (file == null) {
+                return null;
+            }
+            return toCompatibleImage(ImageIO.read(file));
+        } finally {
+            loadNanos.put(key, System.nanoTime() - start);
+        }
+    }
+
+    private static File resolve(String key) {
+        for (String root : ASSET_ROOTS) {
+            File file = new File(root + key);
+            if (file.exists()) {
+                return file;
+            }
+        }
+
+        String fileName = new File(key).getName();
+        for (String dir : FALLBACK_DIRS) {
+            File file = new File(dir + fileName);
+            if (file.exists()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    // Bild in das Format des Bildschirms kopieren, damit Java2D es beschleunigt zeichnen kann
+    public BufferedImage toCompatibleImage(BufferedImage image) {
+        if (image == null || screenConfig == null) {
+            return image;
+        }
+        if (image.getColorModel().equals(screenConfig.getColorModel(image.getTransparency()))) {
+            return image;
+        }
+
+        BufferedImage compatible = screenConfig.createCompatibleImage(
+                image.getWidth(), image.getHeight(), image.getTransparency());
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+}
@@ -0,0 +1,257 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
+
+// Einfache Micro-Benchmarks ohne Fenster: Level laden, Physik/Kollision pro Tick
+// und Offscreen-Zeichnen, jeweils für mehrere Levelbreiten, dazu Java2D gegen den
+// SoftwareRenderer. Zusätzlich wird gemessen, wie viele Bytes ein Simulations-Tick
+// allokiert (Soll: 0, geprüft von AllocationCheck), dazu Snapshots und die Wegsuche.
+// Start: java -Djava.awt.headless=true -Dplatformer.audio=off Benchmarks
+public class Benchmarks {
+    private static final int[] LEVEL_WIDTHS = {64, 256, 1024, 4096};
+    private static final int LEVEL_HEIGHT = 5;
+
+    public static void main(final String[] args) throws IOException {
+        File tempDir = Files.createTempDirectory("platformer-bench").toFile();
+        System.out.println("benchmark     width(tiles)  tiles        value");
+
+        for (int width : LEVEL_WIDTHS) {
+            BufferedImage map = createLevelMap(width, LEVEL_HEIGHT);
+            Level level = new Level(map);
+            report("initLevel", width, level, measure(5, 20, level::initLevel), "ns/op");
+
+            // Laden von der Platte: Bild gegen binäres Format
+            File bmp = new File(tempDir, "level" + width + ".bmp");
+            ImageIO.write(map, "bmp", bmp);
+            String lvl = LevelConverter.convert(bmp.getPath());
+            report("loadBmp", width, level, measure(5, 20, () -> new Level(bmp.getPath())), "ns/op");
+            report("loadLvl", width, level, measure(5, 20, () -> new Level(lvl)), "ns/op");
+            bmp.delete();
+            new File(lvl).delete();
+
+            Simulation simulation = new Simulation(level);
+            HeadlessRunner.InputScript script = new HeadlessRunner.InputScript(HeadlessRunner.DEFAULT_SCRIPT);
+            Runnable tick = () -> simulation.tick(script.get(simulation.getTickCount()));
+            report("tick", width, level, measure(50_000, 200_000, tick), "ns/op");
+            report("tick-alloc", width, level, allocatedBytes(100_000, tick), "B/op");
+
+            GameRenderer renderer = new GameRenderer(simulation);
+            BufferedImage frame = new BufferedImage(GameRenderer.VIEWPORT_WIDTH, GameRenderer.VIEWPORT_HEIGHT,
+                    BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = frame.createGraphics();
+            report("draw", width, level, measure(500, 2_000, () -> {
+                simulation.tick(script.get(simulation.getTickCount()));
+                renderer.draw(g2d, 0.5f);
+            }), "ns/op");
+            g2d.dispose();
+        }
+        tempDir.delete();
+
+        benchmarkBaking();
+        benchmarkEntities();
+        benchmarkBackends();
+        benchmarkSnapshots();
+        benchmarkNavigation();
+    }
+
+    // Navigationsgraph aufbauen und einmal vom linken zum rechten Ende suchen, direkt im
+    // NavGraph und als wiederholte Anfrage über den NavigationService (Cache-Treffer, samt
+    // Weg über den Navigations-Thread)
+    private static void benchmarkNavigation() {
+        System.out.printf("%nnavigation  width(tiles)  nodes  links    build ms   search us   cached us%n");
+        for (int width : LEVEL_WIDTHS) {
+            Level level = new Level(createLevelMap(width, LEVEL_HEIGHT));
+            NavGraph.Grid grid = NavGraph.captureGrid(level);
+            NavGraph[] graph = new NavGraph[1];
+            double build = measure(3, 10, () -> graph[0] = new NavGraph(grid));
+
+            int start = 0;
+            int goal = graph[0].getNodeCount() - 1;
+            double search = measure(100, 1_000, () -> graph[0].findPath(start, goal));
+
+            NavigationService navigation = new Simulation(level).getNavigation();
+            int tileSize = level.tileSize;
+            float fromX = (graph[0].getColumn(start) + 0.5f) * tileSize;
+            float fromY = (graph[0].getRow(start) + 1) * tileSize;
+            float toX = (graph[0].getColumn(goal) + 0.5f) * tileSize;
+            float toY = (graph[0].getRow(goal) + 1) * tileSize;
+            double cached = measure(100, 1_000, () -> navigation.findPath(fromX, fromY, toX, toY).join());
+
+            System.out.printf("%22d  %5d  %5d  %10.2f  %10.1f  %10.1f%n", width, graph[0].getNodeCount(),
+                    graph[0].getLinkCount(), build / 1e6, search / 1e3, cached / 1e3);
+        }
+    }
+
+    // Snapshot in den RewindBuffer schreiben (jeden Tick) und einen Tick zurückspulen,
+    // mit nur der Spielfigur und mit vielen zusätzlichen Entities
+    private static void benchmarkSnapshots() {
+        System.out.printf("%nsnapshots   entities   bytes   record ns/op   record B/op   stepBack ns/op%n");
+        for (int extra : new int[] {0, 1_000, 10_000}) {
+            Simulation simulation = new Simulation(new Level(createLevelMap(1024, LEVEL_HEIGHT)));
+            for (int i = 0; i < extra; i++) {
+                simulation.getWorld().create(100 + i % 5000, 50, 32, 42, 42, 92, 0, EntityWorld.NO_SPRITE);
+            }
+            RewindBuffer rewind = new RewindBuffer(simulation, 10);
+            HeadlessRunner.InputScript script = new HeadlessRunner.InputScript(HeadlessRunner.DEFAULT_SCRIPT);
+            for (int i = 0; i < rewind.getCapacity(); i++) {
+                simulation.tick(script.get(simulation.getTickCount()));
+                rewind.record(simulation);
+            }
+
+            double record = measure(2_000, 20_000, () -> rewind.record(simulation));
+            double allocated = allocatedBytes(20_000, () -> rewind.record(simulation));
+            // Immer wieder vor und zurück, damit der Puffer nicht leer wird
+            double stepBack = measure(2_000, 20_000, () -> {
+                rewind.stepBack(simulation);
+                rewind.record(simulation);
+            }) - record;
+            System.out.printf("%19d  %6d  %13.0f  %12.1f  %15.0f%n", simulation.getWorld().getCount(),
+                    simulation.getSnapshotSize(), record, allocated, stepBack);
+        }
+    }
+
+    // Ein Frame im Viewport 1000x350, Java2D gegen den Software-Framebuffer. Die Kamera
+    // scrollt dabei mit dem Skript, Partikel und die Wasseranimation laufen mit; dazu
+    // optional viele Sprites mit Alpha (Mitspieler-Sprite auf eigenen Entities).
+    private static void benchmarkBackends() {
+        System.out.printf("%nbackend (%dx%d)   sprites       ns/frame        fps%n", GameRenderer.VIEWPORT_WIDTH,
+                GameRenderer.VIEWPORT_HEIGHT);
+        BufferedImage map = createLevelMap(1024, LEVEL_HEIGHT);
+        for (int sprites : new int[] {0, 200}) {
+            for (boolean software : new boolean[] {false, true}) {
+                Simulation simulation = new Simulation(new Level(map));
+                Random random = new Random(42);
+                for (int i = 0; i < sprites; i++) {
+                    int id = simulation.getWorld().create(random.nextFloat() * 2000, random.nextFloat() * 200, 32, 42,
+                            42, 92, EntityWorld.GRAVITY | EntityWorld.COLLIDES, 0);
+                    simulation.getWorld().velX[id] = (random.nextFloat() - 0.5f) * 6;
+                }
+
+                HeadlessRunner.InputScript script = new HeadlessRunner.InputScript(HeadlessRunner.DEFAULT_SCRIPT);
+                GameRenderer renderer = new GameRenderer(simulation, software);
+                renderer.setEntitySprite(0, simulation.getPlayer().getImage());
+                BufferedImage frame = new BufferedImage(GameRenderer.VIEWPORT_WIDTH, GameRenderer.VIEWPORT_HEIGHT,
+                        BufferedImage.TYPE_INT_RGB);
+                Graphics2D g2d = frame.createGraphics();
+                double nanos = measure(1_000, 5_000, () -> {
+                    simulation.tick(script.get(simulation.getTickCount()));
+                    renderer.draw(g2d, 0.5f);
+                });
+                g2d.dispose();
+                System.out.printf("%-18s  %7d  %13.0f  %9.0f%n", software ? "software" : "java2d", sprites, nanos,
+                        1e9 / nanos);
+            }
+        }
+    }
+
+    // Auswerten großer Karten in initLevel, einmal in einem Band nach dem anderen und
+    // einmal parallel. TYPE_3BYTE_BGR ist das Format, das ImageIO für .bmp liefert.
+    private static void benchmarkBaking() {
+        System.out.printf("%nbaking (%d cores)       cells   sequential ms   parallel ms   speedup%n",
+                Runtime.getRuntime().availableProcessors());
+        for (int width : new int[] {16_384, 65_536}) {
+            BufferedImage intMap = createLevelMap(width, 64);
+            BufferedImage byteMap = new BufferedImage(width, 64, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g = byteMap.createGraphics();
+            g.drawImage(intMap, 0, 0, null);
+            g.dispose();
+
+            for (BufferedImage map : new BufferedImage[] {intMap, byteMap}) {
+                Level level = new Level(map);
+                double seq = measure(3, 10, () -> level.initLevel(false)) / 1e6;
+                double par = measure(3, 10, () -> level.initLevel(true)) / 1e6;
+                String type = map.getType() == BufferedImage.TYPE_INT_RGB ? "int" : "3byte";
+                System.out.printf("%-6s %17d  %14.2f  %12.2f  %8.2fx%n", type, width * 64, seq, par, seq / par);
+            }
+        }
+    }
+
+    // Physik-Schritt für viele Entities, einmal sequentiell und einmal auf dem ForkJoinPool
+    private static void benchmarkEntities() {
+        Level level = new Level(createLevelMap(1024, LEVEL_HEIGHT));
+        PhysicsSystem sequential = new PhysicsSystem(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        PhysicsSystem parallel = new PhysicsSystem(ForkJoinPool.commonPool(), PhysicsSystem.PARALLEL_THRESHOLD);
+
+        System.out.printf("%nentities (%d cores)   sequential ns/step   parallel ns/step%n",
+                Runtime.getRuntime().availableProcessors());
+        for (int count : new int[] {1_000, 10_000, 100_000}) {
+            EntityWorld world = createEntities(level, count);
+            double seq = measure(200, 1_000, () -> sequential.step(world, level, 1f));
+            double par = measure(200, 1_000, () -> parallel.step(world, level, 1f));
+            System.out.printf("%19d  %19.0f  %17.0f%n", count, seq, par);
+        }
+    }
+
+    static EntityWorld createEntities(Level level, int count) {
+        Random random = new Random(42);
+        EntityWorld world = new EntityWorld();
+        for (int i = 0; i < count; i++) {
+            int id = world.create(random.nextFloat() * (level.lvlSize.x - 32), random.nextFloat() * 200, 32, 42,
+                    42, 92, EntityWorld.GRAVITY | EntityWorld.COLLIDES, EntityWorld.NO_SPRITE);
+            world.velX[id] = (random.nextFloat() - 0.5f) * 6;
+        }
+        return world;
+    }
+
+    // Mittlere Laufzeit einer Operation in Nanosekunden
+    static double measure(int warmup, int iterations, Runnable op) {
+        for (int i = 0; i < warmup; i++) {
+            op.run();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+
+    // Allokierte Bytes pro Operation auf dem aktuellen Thread (nach Aufwärmen)
+    static double allocatedBytes(int iterations, Runnable op) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        return (double) (after - before) / iterations;
+    }
+
+    private static void report(String name, int width, Level level, double value, String unit) {
+        System.out.printf("%-12s  %12d  %5d  %11.1f %s%n", name, width, level.getTileCount(), value, unit);
+    }
+
+    // Boden aus Gras mit regelmäßigen Stufen und Wasserflächen
+    static BufferedImage createLevelMap(int width, int height) {
+        BufferedImage map = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                map.setRGB(x, y, Color.WHITE.getRGB());
+            }
+        }
+
+        for (int x = 0; x < width; x++) {
+            map.setRGB(x, height - 1, (x % 16 == 7) ? Color.BLUE.getRGB() : Color.BLACK.getRGB());
+            if (x % 8 == 4) {
+                map.setRGB(x, height - 2, Color.BLACK.getRGB());
+            }
+        }
+        return map;
+    }
+}
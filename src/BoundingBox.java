@@ -5,8 +5,8 @@ public class BoundingBox {
     public float maxY;
 
     public BoundingBox(float minX, float minY, float maxX, float maxY) {
-        this.minX = minX - 10;
-        this.minY = minY - 50;
+        this.minX = minX;
+        this.minY = minY;
         this.maxX = maxX;
         this.maxY = maxY;
     }
@@ -18,23 +18,28 @@ public class BoundingBox {
 
     // Berechnet wie stark sich zwei Boxen überlappen
     public Vec2 overlapSize(BoundingBox b) {
-        Vec2 result = new Vec2(0, 0);
+        return overlapSize(b, new Vec2(0, 0));
+    }
+
+    // Wie overlapSize(b), schreibt das Ergebnis aber in out (keine Allokation)
+    public Vec2 overlapSize(BoundingBox b, Vec2 out) {
+        return out.set(overlapX(b), overlapY(b));
+    }
 
-        // x Richtung
+    // Überlappung in x Richtung
+    public float overlapX(BoundingBox b) {
         if (minX < b.minX) {
-            result.x = maxX - b.minX;
-        } else {
-            result.x = b.maxX - minX;
+            return maxX - b.minX;
         }
+        return b.maxX - minX;
+    }
 
-        // y Richtung
+    // Überlappung in y Richtung
+    public float overlapY(BoundingBox b) {
         if (minY < b.minY) {
-            result.y = maxY - b.minY;
-        } else {
-            result.y = b.maxY - minY;
+            return maxY - b.minY;
         }
-
-        return result;
+        return b.maxY - minY;
     }
 
     public void updatePosition(float x, float y, float width, float height) {
@@ -0,0 +1,205 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Alle Spielobjekte (Spieler, Gegner, Projektile, Plattformen) als Komponenten in
+// parallelen Arrays: Eintrag i in jedem Array gehört zu Entity i. Die Systeme
+// (z.B. PhysicsSystem) laufen in einer Schleife über diese Arrays.
+public class EntityWorld {
+    // Flags
+    public static final int ALIVE = 1;
+    public static final int GRAVITY = 2;      // Schwerkraft und Luftreibung
+    public static final int COLLIDES = 4;     // Kollision mit festen Tiles
+    public static final int ON_GROUND = 8;    // steht auf einem Tile (vom PhysicsSystem gesetzt)
+
+    public static final int NO_SPRITE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    // Pro Entity im Snapshot: 10 floats und 2 ints
+    private static final int SNAPSHOT_ENTITY_BYTES = 12 * 4;
+
+    // Position und Position des vorherigen Ticks (für die Interpolation)
+    float[] x, y, prevX, prevY;
+    float[] velX, velY;
+    // Körpergröße (Levelgrenzen) und Kollisionsbox gegen Tiles
+    float[] width, height, colliderWidth, colliderHeight;
+    int[] flags;
+    int[] sprite;
+
+    // Entities 0 .. count-1 sind belegt oder frei (Flag ALIVE fehlt)
+    private int count = 0;
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+
+    public EntityWorld() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int create(float startX, float startY, float width, float height,
+                      float colliderWidth, float colliderHeight, int flags, int sprite) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (count == x.length) {
+                allocate(x.length * 2);
+            }
+            id = count++;
+        }
+
+        x[id] = startX;
+        y[id] = startY;
+        prevX[id] = startX;
+        prevY[id] = startY;
+        velX[id] = 0;
+        velY[id] = 0;
+        this.width[id] = width;
+        this.height[id] = height;
+        this.colliderWidth[id] = colliderWidth;
+        this.colliderHeight[id] = colliderHeight;
+        this.flags[id] = flags | ALIVE;
+        this.sprite[id] = sprite;
+        return id;
+    }
+
+    // Die Id wird beim nächsten create() wiederverwendet
+    public void remove(int id) {
+        if (!isAlive(id))
+            return;
+
+        flags[id] = 0;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    // Obergrenze für Schleifen über alle Ids
+    public int getCount() {
+        return count;
+    }
+
+    public int getAliveCount() {
+        return count - freeCount;
+    }
+
+    public boolean isAlive(int id) {
+        return id < count && (flags[id] & ALIVE) != 0;
+    }
+
+    public boolean hasFlag(int id, int flag) {
+        return (flags[id] & flag) != 0;
+    }
+
+    public float getX(int id) {
+        return x[id];
+    }
+
+    public float getY(int id) {
+        return y[id];
+    }
+
+    public float getRenderX(int id, float alpha) {
+        return prevX[id] + (x[id] - prevX[id]) * alpha;
+    }
+
+    public float getRenderY(int id, float alpha) {
+        return prevY[id] + (y[id] - prevY[id]) * alpha;
+    }
+
+    public int getSprite(int id) {
+        return sprite[id];
+    }
+
+    // Bytes, die writeTo() für den aktuellen Zustand braucht
+    public int getSnapshotSize() {
+        return 8 + count * SNAPSHOT_ENTITY_BYTES + freeCount * 4;
+    }
+
+    // Alle Entities flach hintereinander: count, freeCount, je Entity alle Komponenten,
+    // dann die freien Ids. Allokiert nichts.
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(count);
+        buffer.putInt(freeCount);
+        for (int i = 0; i < count; i++) {
+            buffer.putFloat(x[i]);
+            buffer.putFloat(y[i]);
+            buffer.putFloat(prevX[i]);
+            buffer.putFloat(prevY[i]);
+            buffer.putFloat(velX[i]);
+            buffer.putFloat(velY[i]);
+            buffer.putFloat(width[i]);
+            buffer.putFloat(height[i]);
+            buffer.putFloat(colliderWidth[i]);
+            buffer.putFloat(colliderHeight[i]);
+            buffer.putInt(flags[i]);
+            buffer.putInt(sprite[i]);
+        }
+        for (int i = 0; i < freeCount; i++) {
+            buffer.putInt(freeIds[i]);
+        }
+    }
+
+    // Gegenstück zu writeTo(), ersetzt alle Entities. Vergrößert nur, wenn der
+    // Snapshot mehr Entities enthält als Platz ist.
+    public void readFrom(ByteBuffer buffer) {
+        int newCount = buffer.getInt();
+        int newFreeCount = buffer.getInt();
+        if (newCount > x.length) {
+            allocate(Math.max(newCount, x.length * 2));
+        }
+        if (newFreeCount > freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(newFreeCount, freeIds.length * 2));
+        }
+
+        count = newCount;
+        freeCount = newFreeCount;
+        for (int i = 0; i < count; i++) {
+            x[i] = buffer.getFloat();
+            y[i] = buffer.getFloat();
+            prevX[i] = buffer.getFloat();
+            prevY[i] = buffer.getFloat();
+            velX[i] = buffer.getFloat();
+            velY[i] = buffer.getFloat();
+            width[i] = buffer.getFloat();
+            height[i] = buffer.getFloat();
+            colliderWidth[i] = buffer.getFloat();
+            colliderHeight[i] = buffer.getFloat();
+            flags[i] = buffer.getInt();
+            sprite[i] = buffer.getInt();
+        }
+        for (int i = 0; i < freeCount; i++) {
+            freeIds[i] = buffer.getInt();
+        }
+    }
+
+    private void allocate(int capacity) {
+        if (x == null) {
+            x = new float[capacity];
+            y = new float[capacity];
+            prevX = new float[capacity];
+            prevY = new float[capacity];
+            velX = new float[capacity];
+            velY = new float[capacity];
+            width = new float[capacity];
+            height = new float[capacity];
+            colliderWidth = new float[capacity];
+            colliderHeight = new float[capacity];
+            flags = new int[capacity];
+            sprite = new int[capacity];
+            return;
+        }
+
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        colliderWidth = Arrays.copyOf(colliderWidth, capacity);
+        colliderHeight = Arrays.copyOf(colliderHeight, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        sprite = Arrays.copyOf(sprite, capacity);
+    }
+}
@@ -0,0 +1,369 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Verbindung zu einem GameServer. Setzt die Snapshot-Deltas wieder zum vollständigen
+// Zustand zusammen, merkt sich die letzten HISTORY Snapshots und interpoliert daraus
+// mit INTERPOLATION_DELAY Ticks Verzögerung, damit zwischen zwei Snapshots nichts ruckelt.
+// Nicht threadsicher, alle Aufrufe vom selben Thread.
+public class GameClient {
+    private static final int HISTORY = 32;
+    // So viele Server-Ticks liegt die Anzeige hinter dem neuesten Snapshot
+    private static final float INTERPOLATION_DELAY = 2.5f;
+    // Sprite-Id der Mitspieler im GameRenderer
+    public static final int REMOTE_PLAYER_SPRITE = 0;
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(4 * NetProtocol.MAX_FRAME);
+    private final ByteBuffer out = ByteBuffer.allocate(256);
+
+    // Aus WELCOME, vorher -1 bzw. null
+    private int entity = -1;
+    private int tickRate = 0;
+    private String levelPath = null;
+
+    // Zustand nach dem neuesten Snapshot, Index = Entity-Id auf dem Server
+    private int capacity = 0;
+    private boolean[] alive = new boolean[0];
+    private float[] x = new float[0];
+    private float[] y = new float[0];
+    private float[] velX = new float[0];
+    private float[] velY = new float[0];
+    private boolean[] onGround = new boolean[0];
+    // Zählt REMOVED je Id: ändert sich der Wert, ist es ein neues Entity mit derselben Id
+    private int[] spawn = new int[0];
+
+    // Ringpuffer der letzten Snapshots: Tick, Empfangszeit, Positionen
+    private final long[] historyTick = new long[HISTORY];
+    private final long[] historyArrival = new long[HISTORY];
+    private final boolean[][] historyAlive = new boolean[HISTORY][0];
+    private final float[][] historyX = new float[HISTORY][0];
+    private final float[][] historyY = new float[HISTORY][0];
+    private final int[][] historySpawn = new int[HISTORY][0];
+    private int historyCount = 0;
+    private int newest = -1;
+
+    // Interpolierte Positionen für die Anzeige
+    private boolean[] renderAlive = new boolean[0];
+    private float[] renderX = new float[0];
+    private float[] renderY = new float[0];
+    private int[] renderSpawn = new int[0];
+
+    // Lokale Entity-Id für jedes Server-Entity in applyTo(), -1 = keins, dazu der Stand von
+    // spawn und Bodenkontakt, für den es angelegt bzw. zuletzt übernommen wurde
+    private int[] localIds = new int[0];
+    private int[] localSpawn = new int[0];
+    private boolean[] localOnGround = new boolean[0];
+
+    private int lastSentInput = -1;
+    private long bytesReceived = 0;
+    private long bytesSent = 0;
+    private long snapshotCount = 0;
+    private int serverTickMicros = 0;
+
+    private GameClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    // Baut die Verbindung blockierend auf, danach ist der Kanal nicht-blockierend
+    public static GameClient connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return new GameClient(channel);
+    }
+
+    // Wartet auf WELCOME, false bei Zeitüberschreitung
+    public boolean awaitWelcome(long timeoutMillis) throws IOException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        while (entity < 0 && System.nanoTime() < deadline) {
+            poll();
+            Thread.onSpinWait();
+        }
+        return entity >= 0;
+    }
+
+    public int getEntity() {
+        return entity;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    // Dauer des letzten Server-Ticks laut Snapshot
+    public int getServerTickMicros() {
+        return serverTickMicros;
+    }
+
+    // Zustand nach dem neuesten Snapshot, ohne Interpolation
+    public boolean isAlive(int id) {
+        return id < capacity && alive[id];
+    }
+
+    public float getX(int id) {
+        return x[id];
+    }
+
+    public float getY(int id) {
+        return y[id];
+    }
+
+    public float getVelX(int id) {
+        return velX[id];
+    }
+
+    public float getVelY(int id) {
+        return velY[id];
+    }
+
+    public boolean isOnGround(int id) {
+        return onGround[id];
+    }
+
+    // Schickt die Eingabe nur, wenn sich gegenüber dem letzten Mal etwas ändert
+    public void sendInput(InputSnapshot input) throws IOException {
+        int bits = input.getBits();
+        if (bits == lastSentInput)
+            return;
+
+        out.putInt(2);
+        out.put(NetProtocol.INPUT);
+        out.put((byte) bits);
+        lastSentInput = bits;
+        flush();
+    }
+
+    // Liest alles, was gerade da ist, und verarbeitet vollständige Nachrichten
+    public void poll() throws IOException {
+        flush();
+
+        int read;
+        while ((read = channel.read(in)) > 0) {
+            bytesReceived += read;
+            processFrames();
+        }
+        if (read < 0)
+            throw new IOException("Server closed the connection");
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void flush() throws IOException {
+        if (out.position() == 0)
+            return;
+
+        out.flip();
+        bytesSent += channel.write(out);
+        out.compact();
+    }
+
+    private void processFrames() throws IOException {
+        in.flip();
+        while (in.remaining() >= NetProtocol.FRAME_HEADER) {
+            int length = in.getInt(in.position());
+            if (length < 1 || length > in.capacity() - 4)
+                throw new IOException("Invalid frame length " + length);
+            if (in.remaining() < 4 + length)
+                break;
+
+            int end = in.position() + 4 + length;
+            in.position(in.position() + 4);
+            byte type = in.get();
+            if (type == NetProtocol.WELCOME) {
+                entity = in.getInt();
+                tickRate = in.getInt();
+                byte[] path = new byte[in.getShort()];
+                in.get(path);
+                levelPath = new String(path, StandardCharsets.UTF_8);
+            } else if (type == NetProtocol.SNAPSHOT) {
+                readSnapshot();
+            }
+            in.position(end);
+        }
+        in.compact();
+    }
+
+    private void readSnapshot() {
+        long tick = in.getInt() & 0xFFFFFFFFL;
+        serverTickMicros = in.getInt();
+        int deltas = in.getShort() & 0xFFFF;
+
+        for (int i = 0; i < deltas; i++) {
+            int id = in.getShort() & 0xFFFF;
+            int fields = in.get();
+            ensureCapacity(id + 1);
+
+            if ((fields & NetProtocol.REMOVED) != 0) {
+                alive[id] = false;
+                spawn[id]++;
+                continue;
+            }
+            alive[id] = true;
+            if ((fields & NetProtocol.FIELD_X) != 0) x[id] = in.getFloat();
+            if ((fields & NetProtocol.FIELD_Y) != 0) y[id] = in.getFloat();
+            if ((fields & NetProtocol.FIELD_VEL_X) != 0) velX[id] = in.getFloat();
+            if ((fields & NetProtocol.FIELD_VEL_Y) != 0) velY[id] = in.getFloat();
+            if ((fields & NetProtocol.FIELD_ON_GROUND) != 0) onGround[id] = in.get() != 0;
+        }
+
+        // Vollständigen Zustand in den Verlauf übernehmen
+        newest = (newest + 1) % HISTORY;
+        historyCount = Math.min(historyCount + 1, HISTORY);
+        historyTick[newest] = tick;
+        historyArrival[newest] = System.nanoTime();
+        if (historyX[newest].length < capacity) {
+            historyAlive[newest] = new boolean[capacity];
+            historyX[newest] = new float[capacity];
+            historyY[newest] = new float[capacity];
+            historySpawn[newest] = new int[capacity];
+        }
+        System.arraycopy(alive, 0, historyAlive[newest], 0, capacity);
+        System.arraycopy(x, 0, historyX[newest], 0, capacity);
+        System.arraycopy(y, 0, historyY[newest], 0, capacity);
+        System.arraycopy(spawn, 0, historySpawn[newest], 0, capacity);
+        Arrays.fill(historyAlive[newest], capacity, historyAlive[newest].length, false);
+        snapshotCount++;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= capacity)
+            return;
+
+        int size = Math.max(count, capacity * 2);
+        alive = Arrays.copyOf(alive, size);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        velX = Arrays.copyOf(velX, size);
+        velY = Arrays.copyOf(velY, size);
+        onGround = Arrays.copyOf(onGround, size);
+        spawn = Arrays.copyOf(spawn, size);
+        renderAlive = Arrays.copyOf(renderAlive, size);
+        renderX = Arrays.copyOf(renderX, size);
+        renderY = Arrays.copyOf(renderY, size);
+        renderSpawn = Arrays.copyOf(renderSpawn, size);
+        localIds = Arrays.copyOf(localIds, size);
+        localSpawn = Arrays.copyOf(localSpawn, size);
+        localOnGround = Arrays.copyOf(localOnGround, size);
+        Arrays.fill(localIds, capacity, size, -1);
+        capacity = size;
+    }
+
+    // Positionen für den Zeitpunkt now (System.nanoTime()) aus den zwei umgebenden Snapshots
+    public void interpolate(long now) {
+        if (historyCount == 0)
+            return;
+
+        // Server-Zeit in Ticks, aus dem neuesten Snapshot hochgerechnet
+        long stepNanos = 1_000_000_000L / Math.max(1, tickRate);
+        double renderTick = historyTick[newest] + (double) (now - historyArrival[newest]) / stepNanos
+                - INTERPOLATION_DELAY;
+
+        // Neuesten Snapshot suchen, der nicht nach renderTick liegt
+        int before = newest;
+        for (int i = 1; i < historyCount && historyTick[before] > renderTick; i++) {
+            before = (newest - i + HISTORY) % HISTORY;
+        }
+        int after = before == newest ? newest : (before + 1) % HISTORY;
+
+        float t = 0;
+        long span = historyTick[after] - historyTick[before];
+        if (span > 0) {
+            t = (float) Math.max(0, Math.min(1, (renderTick - historyTick[before]) / span));
+        }
+
+        boolean[] aliveA = historyAlive[before];
+        boolean[] aliveB = historyAlive[after];
+        for (int id = 0; id < capacity; id++) {
+            boolean inA = id < aliveA.length && aliveA[id];
+            boolean inB = id < aliveB.length && aliveB[id];
+            renderAlive[id] = inA || inB;
+            // Dazwischen neu vergeben: nicht vom alten zum neuen Entity interpolieren
+            boolean respawned = inA && inB && historySpawn[before][id] != historySpawn[after][id];
+            if (inA && inB && !respawned) {
+                renderX[id] = historyX[before][id] + (historyX[after][id] - historyX[before][id]) * t;
+                renderY[id] = historyY[before][id] + (historyY[after][id] - historyY[before][id]) * t;
+                renderSpawn[id] = historySpawn[after][id];
+            } else if (inB) {
+                renderX[id] = historyX[after][id];
+                renderY[id] = historyY[after][id];
+                renderSpawn[id] = historySpawn[after][id];
+            } else if (inA) {
+                renderX[id] = historyX[before][id];
+                renderY[id] = historyY[before][id];
+                renderSpawn[id] = historySpawn[before][id];
+            }
+        }
+    }
+
+    // Überträgt die interpolierten Positionen in die lokale Simulation: das eigene
+    // Entity auf die Spielfigur, alle anderen auf eigene Entities mit Mitspieler-Sprite.
+    // Den Bodenkontakt nur bei Änderung auf dem Server übernehmen: ein lokaler Absprung
+    // löscht ihn, und er soll nicht wieder gesetzt werden, solange der Server den Sprung
+    // noch nicht kennt.
+    public void applyTo(Simulation simulation) {
+        EntityWorld world = simulation.getWorld();
+        int playerEntity = simulation.getPlayer().getEntity();
+
+        for (int id = 0; id < capacity; id++) {
+            int local = id == entity ? playerEntity : localIds[id];
+            if (local >= 0 && local != playerEntity && localSpawn[id] != renderSpawn[id]) {
+                // Id auf dem Server neu vergeben: altes Entity weg, neues unten anlegen
+                world.remove(local);
+                localIds[id] = -1;
+                local = -1;
+            }
+            if (!renderAlive[id]) {
+                if (local >= 0 && local != playerEntity) {
+                    world.remove(local);
+                    localIds[id] = -1;
+                }
+                continue;
+            }
+
+            if (local < 0) {
+                // Bewegt wird nur vom Server, lokal keine Physik
+                local = Player.createEntity(world, renderX[id], renderY[id]);
+                world.flags[local] = EntityWorld.ALIVE;
+                world.sprite[local] = REMOTE_PLAYER_SPRITE;
+                localIds[id] = local;
+                localSpawn[id] = renderSpawn[id];
+                localOnGround[id] = !onGround[id];
+            }
+            if (localOnGround[id] != onGround[id]) {
+                localOnGround[id] = onGround[id];
+                if (onGround[id]) {
+                    world.flags[local] |= EntityWorld.ON_GROUND;
+                } else {
+                    world.flags[local] &= ~EntityWorld.ON_GROUND;
+                }
+            }
+            world.prevX[local] = world.x[local];
+            world.prevY[local] = world.y[local];
+            world.x[local] = renderX[id];
+            world.y[local] = renderY[id];
+        }
+    }
+}
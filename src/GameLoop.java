@@ -0,0 +1,96 @@
+import java.util.concurrent.locks.LockSupport;
+
+// Spielschleife mit festem Zeitschritt auf eigenem Thread.
+// Die Simulation läuft immer in Schritten von 1/ticksPerSecond, gezeichnet wird
+// unabhängig davon mit einem Interpolationsfaktor zwischen den letzten beiden Zuständen.
+// Ticks und Frames laufen bewusst auf demselben Thread, getrennt ist nur ihr Takt: die
+// Renderer lesen Welt, Partikel und Level direkt, ein eigener Simulations-Thread bräuchte
+// dafür einen doppelt gepufferten Zeichenzustand. Tick- und Bildrate sind trotzdem
+// unabhängig einstellbar, das Aufholen ist auf maxTicksPerFrame begrenzt.
+public class GameLoop implements Runnable {
+
+    public interface Game {
+        // Ein Simulationsschritt
+        void tick();
+
+        // alpha in [0, 1): Anteil des nächsten Schritts, der schon vergangen ist
+        void render(float alpha);
+    }
+
+    private final Game game;
+    private final long stepNanos;
+    private final long frameNanos;
+    private final int maxTicksPerFrame;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public GameLoop(Game game, int ticksPerSecond, int framesPerSecond, int maxTicksPerFrame) {
+        this.game = game;
+        this.stepNanos = 1_000_000_000L / ticksPerSecond;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "game-loop");
+        thread.start();
+    }
+
+    // Hält die Schleife an und wartet, bis der aktuelle Durchlauf fertig ist
+    public void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            int ticks = 0;
+            while (accumulator >= stepNanos && ticks < maxTicksPerFrame) {
+                game.tick();
+                accumulator -= stepNanos;
+                ticks++;
+            }
+
+            // Nicht aufholbaren Rückstand verwerfen, sonst schaukelt sich die Last auf
+            if (accumulator >= stepNanos) {
+                accumulator %= stepNanos;
+            }
+
+            if (now >= nextFrame) {
+                game.render((float) accumulator / stepNanos);
+                nextFrame += frameNanos;
+                if (nextFrame < now) {
+                    nextFrame = now + frameNanos;
+                }
+            }
+
+            // Bis zum nächsten fälligen Tick oder Frame schlafen
+            long wake = Math.min(now + (stepNanos - accumulator), nextFrame);
+            long sleep = wake - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+// Zeichnet einen Frame des Spiels, egal ob ins Fenster oder in ein Offscreen-Bild.
+// Standard ist Java2D; mit -Dplatformer.renderer=software zeichnet der SoftwareRenderer
+// alles selbst in einen int[]-Framebuffer (für Rechner ohne GPU).
+public class GameRenderer {
+    public static final int VIEWPORT_WIDTH = 1000;
+    public static final int VIEWPORT_HEIGHT = 5 * 70;
+    public static final boolean SOFTWARE_DEFAULT = "software".equals(System.getProperty("platformer.renderer"));
+
+    private final Simulation simulation;
+    private final EntityWorld world;
+    private final Player player;
+    // Wechselt mit dem Level der Simulation
+    private Level level;
+    private LevelStripRenderer levelRenderer;
+    private AnimatedTileRenderer animatedTiles;
+    // Gesetzt, wenn der Software-Framebuffer benutzt wird, dann ohne die beiden oben
+    private final SoftwareRenderer software;
+
+    // Bilder für Entities, Index = Sprite-Id aus der EntityWorld
+    private BufferedImage[] entitySprites = new BufferedImage[0];
+
+    // Partikelfarben mit abnehmender Deckkraft, Index = Farbe * ALPHA_STEPS + Stufe
+    private static final int ALPHA_STEPS = 4;
+    static final int PARTICLE_SIZE = 4;
+    static final Color[] PARTICLE_COLORS = createParticleColors(
+            new Color(150, 120, 80), new Color(110, 85, 55),
+            new Color(90, 160, 240), new Color(200, 230, 255));
+    // Partikel nach Farbe sortiert, damit jede Farbe nur einmal gesetzt wird
+    private final int[] particleOrder = new int[ParticleSystem.MAX_PARTICLES];
+    private final int[] colorStart = new int[PARTICLE_COLORS.length + 1];
+
+    // Messwerte-Overlay (F3), wird vom Event-Thread umgeschaltet
+    private Metrics metrics = null;
+    private volatile boolean overlayVisible = false;
+    private final Font overlayFont = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    public GameRenderer(Simulation simulation) {
+        this(simulation, SOFTWARE_DEFAULT);
+    }
+
+    public GameRenderer(Simulation simulation, boolean useSoftware) {
+        this.simulation = simulation;
+        this.level = simulation.getLevel();
+        this.world = simulation.getWorld();
+        this.player = simulation.getPlayer();
+        if (useSoftware) {
+            this.software = new SoftwareRenderer(simulation, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+        } else {
+            this.software = null;
+            this.levelRenderer = new LevelStripRenderer(level, VIEWPORT_WIDTH);
+            this.animatedTiles = new AnimatedTileRenderer(level, VIEWPORT_WIDTH);
+        }
+    }
+
+    public boolean isSoftware() {
+        return software != null;
+    }
+
+    public void setEntitySprite(int spriteId, BufferedImage image) {
+        if (spriteId >= entitySprites.length) {
+            entitySprites = Arrays.copyOf(entitySprites, spriteId + 1);
+        }
+        entitySprites[spriteId] = image;
+    }
+
+    public void draw(Graphics2D g2d, float alpha) {
+        if (simulation.getLevel() != level) {
+            level = simulation.getLevel();
+            if (software == null) {
+                levelRenderer = new LevelStripRenderer(level, VIEWPORT_WIDTH);
+                animatedTiles = new AnimatedTileRenderer(level, VIEWPORT_WIDTH);
+            }
+        }
+
+        // Zwischen den letzten beiden Simulationszuständen interpolieren
+        float offsetX = level.getRenderOffsetX(alpha);
+        int frame = (int) ((simulation.getTickCount() + alpha) * simulation.getDt() / Level.ANIMATION_TICKS);
+
+        if (software != null) {
+            software.draw(g2d, alpha, (int) offsetX, frame, entitySprites);
+            if (overlayVisible && metrics != null) {
+                drawOverlay(g2d);
+            }
+            return;
+        }
+
+        // Nur den sichtbaren Level-Ausschnitt zeichnen, die animierten Tiles darüber
+        levelRenderer.draw(g2d, (int) offsetX);
+        animatedTiles.draw(g2d, (int) offsetX, frame);
+
+        drawEntities(g2d, alpha, offsetX);
+        drawParticles(g2d, alpha, offsetX);
+
+        // Player zeichnen
+        if (player != null) {
+            g2d.drawImage(player.getImage(),
+                    (int) (player.getRenderX(alpha) - offsetX),
+                    (int) player.getRenderY(alpha),
+                    null);
+        }
+
+        if (overlayVisible && metrics != null) {
+            drawOverlay(g2d);
+        }
+    }
+
+    // Alle übrigen Entities mit Sprite, nur wenn sie im Bild sind
+    private void drawEntities(Graphics2D g2d, float alpha, float offsetX) {
+        for (int id = 0; id < world.getCount(); id++) {
+            if (!world.isAlive(id))
+                continue;
+
+            int sprite = world.getSprite(id);
+            if (sprite == EntityWorld.NO_SPRITE || sprite >= entitySprites.length || entitySprites[sprite] == null)
+                continue;
+
+            BufferedImage image = entitySprites[sprite];
+            int screenX = (int) (world.getRenderX(id, alpha) - offsetX);
+            if (screenX + image.getWidth() < 0 || screenX > VIEWPORT_WIDTH)
+                continue;
+
+            g2d.drawImage(image, screenX, (int) world.getRenderY(id, alpha), null);
+        }
+    }
+
+    // Alle Partikel als kleine Rechtecke, sortiert nach Farbe und Deckkraft
+    private void drawParticles(Graphics2D g2d, float alpha, float offsetX) {
+        ParticleSystem particles = simulation.getParticles();
+        int count = particles.count;
+        if (count == 0)
+            return;
+
+        // Zählen, dann die Indizes nach Farbe einsortieren (Counting Sort)
+        Arrays.fill(colorStart, 0);
+        for (int i = 0; i < count; i++) {
+            colorStart[particleColor(particles, i) + 1]++;
+        }
+        for (int c = 0; c < PARTICLE_COLORS.length; c++) {
+            colorStart[c + 1] += colorStart[c];
+        }
+        for (int i = 0; i < count; i++) {
+            particleOrder[colorStart[particleColor(particles, i)]++] = i;
+        }
+
+        // colorStart[c] zeigt jetzt auf das Ende von Farbe c
+        int from = 0;
+        for (int c = 0; c < PARTICLE_COLORS.length; c++) {
+            int to = colorStart[c];
+            if (to > from) {
+                g2d.setColor(PARTICLE_COLORS[c]);
+                for (int k = from; k < to; k++) {
+                    int i = particleOrder[k];
+                    float x = particles.prevX[i] + (particles.x[i] - particles.prevX[i]) * alpha - offsetX;
+                    if (x < -PARTICLE_SIZE || x > VIEWPORT_WIDTH)
+                        continue;
+                    float y = particles.prevY[i] + (particles.y[i] - particles.prevY[i]) * alpha;
+                    g2d.fillRect((int) x, (int) y, PARTICLE_SIZE, PARTICLE_SIZE);
+                }
+            }
+            from = to;
+        }
+    }
+
+    // Palettenindex: Farbe und Deckkraftstufe nach verbleibender Lebensdauer
+    static int particleColor(ParticleSystem particles, int i) {
+        int step = (int) (particles.life[i] / particles.maxLife[i] * ALPHA_STEPS);
+        return particles.color[i] * ALPHA_STEPS + Math.min(step, ALPHA_STEPS - 1);
+    }
+
+    private static Color[] createParticleColors(Color... colors) {
+        Color[] palette = new Color[colors.length * ALPHA_STEPS];
+        for (int c = 0; c < colors.length; c++) {
+            for (int step = 0; step < ALPHA_STEPS; step++) {
+                int a = 255 * (step + 1) / ALPHA_STEPS;
+                palette[c * ALPHA_STEPS + step] = new Color(colors[c].getRed(), colors[c].getGreen(), colors[c].getBlue(), a);
+            }
+        }
+        return palette;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+    }
+
+    private void drawOverlay(Graphics2D g2d) {
+        String[] lines = metrics.getOverlayLines();
+        g2d.setFont(overlayFont);
+        g2d.setColor(new Color(0, 0, 0, 160));
+        g2d.fillRect(5, 30, 330, 8 + lines.length * 15);
+        g2d.setColor(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], 10, 45 + i * 15);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+// Autoritativer Server: simuliert ein Level mit allen verbundenen Spielern ohne Fenster
+// und schickt nach jedem Tick jedem Client einen Snapshot (siehe NetProtocol).
+// Netzwerk und Ticks laufen auf einem Thread, Wartezeit zwischen den Ticks verbringt
+// er im Selector. Lauscht nur auf 127.0.0.1.
+// Start: java GameServer <level> [port] [tickRate]
+public class GameServer implements Runnable {
+    public static final int DEFAULT_TICK_RATE = 60;
+    // Höchstens so viele Ticks werden nach einer Verzögerung nachgeholt
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private static final long REPORT_NANOS = 5_000_000_000L;
+
+    private final Level level;
+    private final String levelPath;
+    private final EntityWorld world = new EntityWorld();
+    private final PhysicsSystem physics = new PhysicsSystem();
+    private final int tickRate;
+    private final float dt;
+    private final long stepNanos;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final List<Connection> clients = new ArrayList<>();
+    // Wie oft jede Entity-Id schon vergeben wurde, damit Clients eine neu vergebene Id
+    // nicht für das alte Entity halten
+    private int[] spawns = new int[0];
+    // Snapshot wird hier zusammengebaut und dann in die Puffer der Clients kopiert
+    private final ByteBuffer frame = ByteBuffer.allocate(NetProtocol.MAX_FRAME);
+
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private long tick = 0;
+    private long bytesSent = 0;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public GameServer(String levelPath, int port, int tickRate) throws IOException {
+        this.levelPath = new java.io.File(levelPath).getAbsolutePath();
+        this.level = new Level(levelPath);
+        this.tickRate = tickRate;
+        this.dt = (float) Simulation.REFERENCE_TICK_RATE / tickRate;
+        this.stepNanos = 1_000_000_000L / tickRate;
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java GameServer <level> [port] [tickRate]");
+            return;
+        }
+
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : NetProtocol.DEFAULT_PORT;
+        int tickRate = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TICK_RATE;
+        GameServer server = new GameServer(args[0], port, tickRate);
+        System.out.println("Server listening on 127.0.0.1:" + server.getPort() + " at " + tickRate + " Hz");
+        server.run();
+    }
+
+    // Tatsächlicher Port, auch wenn mit Port 0 gestartet
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public LatencyHistogram getTickTimes() {
+        return tickTimes;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "game-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        running = true;
+        long nextTick = System.nanoTime();
+        long nextReport = nextTick + REPORT_NANOS;
+
+        try {
+            while (running) {
+                long wait = nextTick - System.nanoTime();
+                if (wait > 1_000_000) {
+                    selector.select(wait / 1_000_000);
+                } else {
+                    selector.selectNow();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                handleSelectedKeys();
+
+                long now = System.nanoTime();
+                if (now >= nextTick) {
+                    tick();
+                    nextTick += stepNanos;
+                    // Zu weit hinten: Rückstand verwerfen statt hinterherzuhetzen
+                    if (now - nextTick > MAX_CATCH_UP_TICKS * stepNanos) {
+                        nextTick = now;
+                    }
+                }
+                if (now >= nextReport) {
+                    report(now - nextReport + REPORT_NANOS);
+                    nextReport = now + REPORT_NANOS;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            close();
+        }
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        for (Connection client : clients) {
+            Player.applyMovement(world, client.entity, InputSnapshot.of(client.held, client.pressed));
+            client.pressed = 0;
+        }
+        physics.step(world, level, dt);
+        long tickNanos = System.nanoTime() - start;
+        tickTimes.record(tickNanos);
+        tick++;
+
+        int tickMicros = (int) Math.min(Integer.MAX_VALUE, tickNanos / 1000);
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Connection client = clients.get(i);
+            sendSnapshot(client, tickMicros);
+            if (!flush(client)) {
+                disconnect(client);
+            }
+        }
+    }
+
+    private void handleSelectedKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid())
+                continue;
+
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.isReadable()) {
+                Connection client = (Connection) key.attachment();
+                if (!read(client)) {
+                    disconnect(client);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            int entity = Player.createEntity(world, Simulation.START_X, Simulation.START_Y);
+            // Id passt nicht mehr ins Protokoll: Verbindung ablehnen
+            if (entity >= NetProtocol.MAX_ENTITIES) {
+                world.remove(entity);
+                System.out.println("Server full, rejecting " + channel.getRemoteAddress());
+                channel.close();
+                continue;
+            }
+            Connection client = new Connection(channel, entity);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+            if (client.entity >= spawns.length) {
+                spawns = Arrays.copyOf(spawns, Math.max(client.entity + 1, spawns.length * 2));
+            }
+            spawns[client.entity]++;
+
+            byte[] path = levelPath.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer out = client.out;
+            out.putInt(1 + 4 + 4 + 2 + path.length);
+            out.put(NetProtocol.WELCOME);
+            out.putInt(client.entity);
+            out.putInt(tickRate);
+            out.putShort((short) path.length);
+            out.put(path);
+            System.out.println("Client connected: " + channel.getRemoteAddress() + " as entity " + client.entity);
+        }
+    }
+
+    // false: Verbindung geschlossen oder Protokollfehler
+    private boolean read(Connection client) {
+        ByteBuffer in = client.in;
+        try {
+            if (client.channel.read(in) < 0)
+                return false;
+        } catch (IOException e) {
+            return false;
+        }
+
+        in.flip();
+        while (in.remaining() >= NetProtocol.FRAME_HEADER) {
+            int length = in.getInt(in.position());
+            if (length < 1 || length > in.capacity() - 4)
+                return false;
+            if (in.remaining() < 4 + length)
+                break;
+
+            int end = in.position() + 4 + length;
+            in.position(in.position() + 4);
+            byte type = in.get();
+            if (type == NetProtocol.INPUT && length >= 2) {
+                InputSnapshot input = InputSnapshot.fromBits(in.get());
+                client.held = input.getHeld();
+                // Bis zum nächsten Tick sammeln, damit kurzes Antippen nicht verloren geht
+                client.pressed |= input.getPressed();
+            }
+            in.position(end);
+        }
+        in.compact();
+        return true;
+    }
+
+    // Deltas gegen den zuletzt an diesen Client gesendeten Zustand
+    private void sendSnapshot(Connection client, int tickMicros) {
+        int count = world.getCount();
+        client.ensureCapacity(count);
+
+        frame.clear();
+        frame.position(NetProtocol.SNAPSHOT_HEADER);
+        int deltas = 0;
+        int covered = count;
+        for (int id = 0; id < count; id++) {
+            boolean alive = world.isAlive(id);
+            boolean onGround = alive && world.hasFlag(id, EntityWorld.ON_GROUND);
+            // Id seit dem letzten Snapshot an diesen Client frei geworden und neu vergeben:
+            // erst REMOVED, dann das neue Entity vollständig
+            boolean respawned = alive && client.sentAlive[id] && client.sentSpawn[id] != spawns[id];
+            int fields;
+            if (!alive) {
+                fields = client.sentAlive[id] ? NetProtocol.REMOVED : 0;
+            } else if (!client.sentAlive[id] || respawned) {
+                fields = NetProtocol.ALL_FIELDS;
+            } else {
+                fields = changed(client.sentX[id], world.x[id], NetProtocol.FIELD_X)
+                        | changed(client.sentY[id], world.y[id], NetProtocol.FIELD_Y)
+                        | changed(client.sentVelX[id], world.velX[id], NetProtocol.FIELD_VEL_X)
+                        | changed(client.sentVelY[id], world.velY[id], NetProtocol.FIELD_VEL_Y)
+                        | (client.sentOnGround[id] != onGround ? NetProtocol.FIELD_ON_GROUND : 0);
+            }
+            if (fields == 0)
+                continue;
+
+            // Frame voll: der Rest folgt im nächsten Snapshot
+            if (frame.remaining() < (respawned ? NetProtocol.REMOVED_DELTA : 0) + NetProtocol.MAX_DELTA) {
+                covered = id;
+                break;
+            }
+            if (respawned) {
+                frame.putShort((short) id);
+                frame.put((byte) NetProtocol.REMOVED);
+                deltas++;
+            }
+            frame.putShort((short) id);
+            frame.put((byte) fields);
+            if ((fields & NetProtocol.FIELD_X) != 0) frame.putFloat(world.x[id]);
+            if ((fields & NetProtocol.FIELD_Y) != 0) frame.putFloat(world.y[id]);
+            if ((fields & NetProtocol.FIELD_VEL_X) != 0) frame.putFloat(world.velX[id]);
+            if ((fields & NetProtocol.FIELD_VEL_Y) != 0) frame.putFloat(world.velY[id]);
+            if ((fields & NetProtocol.FIELD_ON_GROUND) != 0) frame.put((byte) (onGround ? 1 : 0));
+            deltas++;
+        }
+
+        int size = frame.position();
+        frame.putInt(0, size - 4);
+        frame.put(4, NetProtocol.SNAPSHOT);
+        frame.putInt(5, (int) tick);
+        frame.putInt(9, tickMicros);
+        frame.putShort(13, (short) deltas);
+
+        // Client kommt nicht hinterher: Snapshot auslassen, das nächste Delta holt es nach
+        if (client.out.remaining() < size)
+            return;
+
+        frame.flip();
+        client.out.put(frame);
+        for (int id = 0; id < covered; id++) {
+            client.sentAlive[id] = world.isAlive(id);
+            client.sentSpawn[id] = client.sentAlive[id] ? spawns[id] : 0;
+            client.sentOnGround[id] = client.sentAlive[id] && world.hasFlag(id, EntityWorld.ON_GROUND);
+            client.sentX[id] = world.x[id];
+            client.sentY[id] = world.y[id];
+            client.sentVelX[id] = world.velX[id];
+            client.sentVelY[id] = world.velY[id];
+        }
+    }
+
+    private static int changed(float sent, float current, int field) {
+        return Float.floatToIntBits(sent) != Float.floatToIntBits(current) ? field : 0;
+    }
+
+    // false: Verbindung kaputt
+    private boolean flush(Connection client) {
+        ByteBuffer out = client.out;
+        out.flip();
+        try {
+            int written = client.channel.write(out);
+            client.bytesSent += written;
+            bytesSent += written;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            out.compact();
+        }
+        return true;
+    }
+
+    private void disconnect(Connection client) {
+        clients.remove(client);
+        world.remove(client.entity);
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            // schon zu
+        }
+        System.out.println("Client disconnected, entity " + client.entity);
+    }
+
+    private void report(long elapsedNanos) {
+        System.out.printf("tick %d: %d clients, tick p50 %.1f us, p99 %.1f us, max %.1f us, out %.1f KB/s%n",
+                tick, clients.size(), tickTimes.getPercentile(50) / 1e3, tickTimes.getPercentile(99) / 1e3,
+                tickTimes.getMax() / 1e3, bytesSent / 1024.0 / (elapsedNanos / 1e9));
+        tickTimes.reset();
+        bytesSent = 0;
+    }
+
+    private void close() {
+        for (Connection client : new ArrayList<>(clients)) {
+            disconnect(client);
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Ein verbundener Client und der Zustand, den er zuletzt bekommen hat
+    private static class Connection {
+        final SocketChannel channel;
+        final int entity;
+        SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocate(4 * 1024);
+        final ByteBuffer out = ByteBuffer.allocate(4 * NetProtocol.MAX_FRAME);
+
+        // Tastenzustand, pressed sammelt bis zum nächsten Tick
+        int held = 0;
+        int pressed = 0;
+
+        // Basis für die Deltas, Index = Entity-Id
+        boolean[] sentAlive = new boolean[0];
+        int[] sentSpawn = new int[0];
+        boolean[] sentOnGround = new boolean[0];
+        float[] sentX = new float[0];
+        float[] sentY = new float[0];
+        float[] sentVelX = new float[0];
+        float[] sentVelY = new float[0];
+        long bytesSent = 0;
+
+        Connection(SocketChannel channel, int entity) {
+            this.channel = channel;
+            this.entity = entity;
+        }
+
+        void ensureCapacity(int count) {
+            if (count <= sentAlive.length)
+                return;
+
+            int capacity = Math.max(count, sentAlive.length * 2);
+            sentAlive = Arrays.copyOf(sentAlive, capacity);
+            sentSpawn = Arrays.copyOf(sentSpawn, capacity);
+            sentOnGround = Arrays.copyOf(sentOnGround, capacity);
+            sentX = Arrays.copyOf(sentX, capacity);
+            sentY = Arrays.copyOf(sentY, capacity);
+            sentVelX = Arrays.copyOf(sentVelX, capacity);
+            sentVelY = Arrays.copyOf(sentVelY, capacity);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lässt die Simulation ohne Fenster und ohne Zeichnen laufen, mit vorgegebener Eingabe.
+// Start: java HeadlessRunner <level.bmp> [ticks] [script] [metrics.csv]
+//   level.bmp: auch mehrere Level durch Komma getrennt, die nacheinander gespielt werden.
+//   "endless:<seed>" spielt ein endloses, generiertes Level.
+//   script: Abschnitte "<Tasten>:<Ticks>" durch Komma getrennt, Tasten aus L, R, J
+//   oder "-" für keine Taste, z.B. "R:300,RJ:5,R:200,L:150". Das Skript wiederholt sich.
+//   metrics.csv: Messwerte als CSV in diese Datei schreiben ("-" = Konsole).
+// Oder: java HeadlessRunner --replay <session.inp> [runs] [level]
+//   Spielt eine aufgezeichnete Sitzung (-Dplatformer.record=<session.inp>) runs-mal ab,
+//   prüft den Endzustand und misst die Ticks pro Sekunde.
+public class HeadlessRunner {
+    public static final String DEFAULT_SCRIPT = "R:400,RJ:2,R:120,-:30,L:200,LJ:2,L:100";
+
+    // Aufnahme der Eingabe, gilt auch für den Platformer
+    public static final String RECORD_PROPERTY = "platformer.record";
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java HeadlessRunner <level.bmp> [ticks] [script] [metrics.csv]");
+            System.out.println("       java HeadlessRunner --replay <session.inp> [runs] [level]");
+            return;
+        }
+
+        if (args[0].equals("--replay")) {
+            replay(args);
+            return;
+        }
+
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        InputScript script = new InputScript(args.length > 2 ? args[2] : DEFAULT_SCRIPT);
+
+        Simulation simulation = createSimulation(args[0], Simulation.TICK_RATE);
+        Player player = simulation.getPlayer();
+        String recordPath = System.getProperty(RECORD_PROPERTY);
+        if (recordPath != null) {
+            simulation.setRecorder(new InputLog(args[0], Simulation.TICK_RATE));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            simulation.tick(script.get(i));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d ticks in %.1f ms (%.0f ticks/s)%n", ticks, elapsed / 1_000_000.0,
+                ticks / (elapsed / 1_000_000_000.0));
+        System.out.printf("Final player position: %.2f / %.2f%n", player.getX(), player.getY());
+        System.out.printf("State hash: %016x%n", simulation.getStateHash());
+
+        if (recordPath != null) {
+            saveRecording(simulation, recordPath);
+        }
+        if (args.length > 3) {
+            writeMetrics(simulation.getMetrics(), args[3]);
+        }
+    }
+
+    // Mehrere Level als Sequenz. Hier wird auf das Laden gewartet, damit der Wechsel
+    // immer im selben Tick passiert; beim Abspielen gibt die Aufnahme die Wechsel vor.
+    private static Simulation createSimulation(String levels, int tickRate) {
+        if (levels.contains(",")) {
+            return new Simulation(LevelSequence.parse(levels, true), tickRate);
+        }
+        return new Simulation(Level.open(levels, true), tickRate);
+    }
+
+    public static void saveRecording(Simulation simulation, String path) throws IOException {
+        InputLog log = simulation.getRecorder();
+        log.finish(simulation);
+        log.write(path);
+        System.out.println("Recorded " + log.getTickCount() + " ticks (" + log.getChangeCount()
+                + " input changes, " + log.getLevelSwitchCount() + " level switches) to " + path);
+    }
+
+    private static void replay(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java HeadlessRunner --replay <session.inp> [runs] [level]");
+            return;
+        }
+
+        InputLog log = InputLog.read(args[1]);
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        String levelPath = args.length > 3 ? args[3] : log.getLevelPath();
+        long ticks = log.getTickCount();
+        System.out.printf("Replaying %d ticks at %d Hz on %s%n", ticks, log.getTickRate(), levelPath);
+
+        boolean identical = true;
+        for (int run = 1; run <= runs; run++) {
+            Simulation simulation = createSimulation(levelPath, log.getTickRate());
+            simulation.setReplay(log);
+
+            long start = System.nanoTime();
+            for (long tick = 0; tick < ticks; tick++) {
+                simulation.tick(InputSnapshot.fromBits(log.stateAt(tick)));
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long hash = simulation.getStateHash();
+            boolean match = hash == log.getFinalHash();
+            identical &= match;
+            System.out.printf("run %d: %.0f ticks/s, hash %016x %s%n", run, ticks / (elapsed / 1_000_000_000.0),
+                    hash, match ? "OK" : "MISMATCH (expected " + String.format("%016x", log.getFinalHash()) + ")");
+        }
+
+        if (!identical) {
+            System.out.println("Replay diverged from the recording");
+            System.exit(1);
+        }
+    }
+
+    private static void writeMetrics(Metrics metrics, String target) throws IOException {
+        if (target.equals("-")) {
+            metrics.writeCsv(new PrintWriter(System.out));
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(target))) {
+            metrics.writeCsv(out);
+        }
+    }
+
+    // Vorgegebene Tastenfolge, Tick für Tick als Eingabe der Simulation
+    public static class InputScript {
+        private final List<InputSnapshot> perTick = new ArrayList<>();
+
+        public InputScript(String script) {
+            int previous = 0;
+            for (String segment : script.split(",")) {
+                String[] parts = segment.trim().split(":");
+                String keys = parts[0];
+                int length = Integer.parseInt(parts[1]);
+
+                int held = (keys.contains("L") ? InputSnapshot.LEFT : 0)
+                        | (keys.contains("R") ? InputSnapshot.RIGHT : 0)
+                        | (keys.contains("J") ? InputSnapshot.JUMP : 0);
+                // Im ersten Tick eines Abschnitts gelten neue Tasten als gedrückt
+                for (int i = 0; i < length; i++) {
+                    perTick.add(InputSnapshot.of(held, i == 0 ? held & ~previous : 0));
+                }
+                previous = held;
+            }
+        }
+
+        public InputSnapshot get(long tick) {
+            return perTick.get((int) (tick % perTick.size()));
+        }
+    }
+}
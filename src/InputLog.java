@@ -0,0 +1,224 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Aufgezeichnete Eingabe einer Spielsitzung, Tick für Tick. Gespeichert werden nur die
+// Ticks, an denen sich der Tastenzustand ändert, dazu Level, Tickrate und ein Hash des
+// Endzustands. Beim Abspielen muss dieselbe Simulation wieder denselben Hash ergeben.
+// Wann eine LevelSequence weiterschaltet, hängt im Spiel von der Ladezeit ab; deshalb
+// werden auch die Ticks der Levelwechsel gespeichert und beim Abspielen übernommen.
+//
+// Aufbau (Big Endian):
+//   int    magic       "PLIN"
+//   short  version
+//   int    tickRate
+//   UTF    levelPath
+//   long   tickCount
+//   long   finalHash
+//   int    changeCount
+//   changeCount x (varint Ticks seit der letzten Änderung, byte InputSnapshot.getBits())
+//   int    switchCount (ab Version 2)
+//   switchCount x varint Ticks seit dem letzten Levelwechsel
+public class InputLog {
+    public static final String EXTENSION = ".inp";
+
+    private static final int MAGIC = 0x504C494E; // "PLIN"
+    private static final short VERSION = 2;
+
+    String levelPath;
+    int tickRate;
+    long tickCount = 0;
+    long finalHash = 0;
+
+    // Änderungen: ab changeTicks[i] gilt changeStates[i]
+    private long[] changeTicks = new long[64];
+    private byte[] changeStates = new byte[64];
+    private int changeCount = 0;
+    private int lastState = 0;
+
+    // Levelwechsel jeweils zu Beginn dieser Ticks. Aufnahmen der Version 1 haben keine,
+    // dort wird beim Abspielen wie bisher nach Position gewechselt.
+    private long[] switchTicks = new long[4];
+    private int switchCount = 0;
+    private boolean switchesRecorded = true;
+
+    public InputLog(String levelPath, int tickRate) {
+        this.levelPath = levelPath;
+        this.tickRate = tickRate;
+    }
+
+    // Tastenzustand, mit dem Tick tick läuft. Ticks müssen aufsteigend kommen.
+    public void record(long tick, int state) {
+        if (state != lastState) {
+            if (changeCount == changeTicks.length) {
+                changeTicks = Arrays.copyOf(changeTicks, changeCount * 2);
+                changeStates = Arrays.copyOf(changeStates, changeCount * 2);
+            }
+            changeTicks[changeCount] = tick;
+            changeStates[changeCount] = (byte) state;
+            changeCount++;
+            lastState = state;
+        }
+        tickCount = tick + 1;
+    }
+
+    // Die Simulation hat zu Beginn von Tick tick das Level gewechselt
+    public void recordLevelSwitch(long tick) {
+        if (switchCount == switchTicks.length) {
+            switchTicks = Arrays.copyOf(switchTicks, switchCount * 2);
+        }
+        switchTicks[switchCount++] = tick;
+    }
+
+    // Nach dem Zurückspulen der Simulation: Änderungen ab Tick tick verwerfen, die Aufnahme
+    // geht dort weiter. Beim Abspielen ergibt sich so derselbe Zustand wie nach dem Spulen.
+    public void truncate(long tick) {
+        while (changeCount > 0 && changeTicks[changeCount - 1] >= tick) {
+            changeCount--;
+        }
+        while (switchCount > 0 && switchTicks[switchCount - 1] >= tick) {
+            switchCount--;
+        }
+        lastState = changeCount > 0 ? changeStates[changeCount - 1] : 0;
+        tickCount = Math.min(tickCount, tick);
+    }
+
+    // Am Ende der Aufnahme, speichert den Zustand zum Vergleich beim Abspielen
+    public void finish(Simulation simulation) {
+        tickCount = simulation.getTickCount();
+        finalHash = simulation.getStateHash();
+    }
+
+    public int stateAt(long tick) {
+        int index = Arrays.binarySearch(changeTicks, 0, changeCount, tick);
+        if (index < 0) {
+            // Letzte Änderung vor tick
+            index = -index - 2;
+        }
+        return index < 0 ? 0 : changeStates[index];
+    }
+
+    public boolean isLevelSwitch(long tick) {
+        return Arrays.binarySearch(switchTicks, 0, switchCount, tick) >= 0;
+    }
+
+    // false bei alten Aufnahmen ohne Levelwechsel
+    public boolean hasLevelSwitches() {
+        return switchesRecorded;
+    }
+
+    public int getLevelSwitchCount() {
+        return switchCount;
+    }
+
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getFinalHash() {
+        return finalHash;
+    }
+
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    public void write(String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Path.of(path))))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(tickRate);
+            out.writeUTF(levelPath);
+            out.writeLong(tickCount);
+            out.writeLong(finalHash);
+            out.writeInt(changeCount);
+
+            long previous = 0;
+            for (int i = 0; i < changeCount; i++) {
+                writeVarLong(out, changeTicks[i] - previous);
+                out.writeByte(changeStates[i]);
+                previous = changeTicks[i];
+            }
+
+            out.writeInt(switchCount);
+            previous = 0;
+            for (int i = 0; i < switchCount; i++) {
+                writeVarLong(out, switchTicks[i] - previous);
+                previous = switchTicks[i];
+            }
+        }
+    }
+
+    public static InputLog read(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Path.of(path))))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not an input log: " + path);
+            short version = in.readShort();
+            if (version != 1 && version != VERSION)
+                throw new IOException("Unsupported input log version " + version + ": " + path);
+
+            InputLog log = new InputLog(null, 0);
+            log.tickRate = in.readInt();
+            log.levelPath = in.readUTF();
+            long tickCount = in.readLong();
+            log.finalHash = in.readLong();
+            int count = in.readInt();
+            if (count < 0)
+                throw new IOException("Corrupt input log: " + path);
+
+            long tick = 0;
+            for (int i = 0; i < count; i++) {
+                tick += readVarLong(in);
+                log.record(tick, in.readByte());
+            }
+
+            if (version == 1) {
+                log.switchesRecorded = false;
+            } else {
+                int switches = in.readInt();
+                if (switches < 0)
+                    throw new IOException("Corrupt input log: " + path);
+                tick = 0;
+                for (int i = 0; i < switches; i++) {
+                    tick += readVarLong(in);
+                    log.recordLevelSwitch(tick);
+                }
+            }
+            log.tickCount = tickCount;
+            return log;
+        }
+    }
+
+    // 7 Bit pro Byte, höchstes Bit = es folgt noch ein Byte
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Corrupt input log: varint too long");
+    }
+}
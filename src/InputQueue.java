@@ -0,0 +1,92 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Eingabe-Ereignisse vom AWT-Thread zur Simulation. Ringpuffer für genau einen
+// Schreiber (offer) und einen Leser (drain), ohne Locks: der Schreiber veröffentlicht
+// ein Ereignis erst durch das Weiterzählen von tail, der Leser gibt den Platz durch
+// das Weiterzählen von head wieder frei.
+// Ist der Puffer voll, geht das Ereignis selbst verloren, nicht aber der Tastenzustand:
+// der Schreiber führt die gehaltenen Tasten mit, und nach einem Verlust übernimmt der Leser
+// diesen Stand. Ein verlorenes Loslassen lässt also keine Taste hängen.
+public class InputQueue {
+    private static final int PRESSED = 1 << 8;
+
+    private final int[] events;
+    private final int mask;
+
+    // Nächste Leseposition, nur vom Leser geschrieben
+    private final AtomicLong head = new AtomicLong();
+    // Nächste Schreibposition, nur vom Schreiber geschrieben
+    private final AtomicLong tail = new AtomicLong();
+    // Zuletzt gelesener Stand von head, nur für den Schreiber
+    private long cachedHead = 0;
+    private volatile long droppedCount = 0;
+    // Gehaltene Tasten nach allen angebotenen Ereignissen, auch den verlorenen.
+    // Nur vom Schreiber geschrieben, vor droppedCount.
+    private volatile int offeredHeld = 0;
+
+    // Gehaltene Tasten, nur für den Leser
+    private int held = 0;
+    // Stand von droppedCount beim letzten Abgleich, nur für den Leser
+    private long seenDropped = 0;
+
+    // capacity wird auf eine Zweierpotenz aufgerundet
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        events = new int[size];
+        mask = size - 1;
+    }
+
+    // Nur vom Schreiber-Thread. key: InputSnapshot.LEFT, RIGHT oder JUMP
+    public boolean offer(int key, boolean pressed) {
+        offeredHeld = pressed ? offeredHeld | key : offeredHeld & ~key;
+        long t = tail.getPlain();
+        if (t - cachedHead == events.length) {
+            cachedHead = head.getAcquire();
+            if (t - cachedHead == events.length) {
+                droppedCount++;
+                return false;
+            }
+        }
+        events[(int) t & mask] = pressed ? key | PRESSED : key;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    // Nur vom Leser-Thread, einmal am Anfang jedes Ticks
+    public InputSnapshot drain() {
+        long dropped = droppedCount;
+        long h = head.getPlain();
+        long t = tail.getAcquire();
+        int pressed = 0;
+        for (; h < t; h++) {
+            int event = events[(int) h & mask];
+            int key = event & InputSnapshot.KEY_MASK;
+            if ((event & PRESSED) != 0) {
+                held |= key;
+                pressed |= key;
+            } else {
+                held &= ~key;
+            }
+        }
+        head.setRelease(h);
+
+        // Ereignisse verloren: Stand des Schreibers übernehmen. Er kann schon Ereignisse
+        // enthalten, die noch im Puffer stehen; die setzen beim nächsten drain() nur
+        // denselben Stand noch einmal. Ein verlorenes Drücken zählt als gedrückt.
+        if (dropped != seenDropped) {
+            seenDropped = dropped;
+            int current = offeredHeld;
+            pressed |= current & ~held;
+            held = current;
+        }
+        return InputSnapshot.of(held, pressed);
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
@@ -0,0 +1,64 @@
+// Tastenzustand für genau einen Tick, unveränderlich. Gehaltene Tasten und Tasten,
+// die während des Ticks gedrückt wurden (auch wenn sie schon wieder losgelassen sind).
+// Es gibt nur 64 mögliche Zustände, die werden einmal angelegt und wiederverwendet.
+public final class InputSnapshot {
+    // Tasten
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int JUMP = 4;
+    public static final int KEY_MASK = LEFT | RIGHT | JUMP;
+
+    private static final int PRESSED_SHIFT = 3;
+    private static final InputSnapshot[] CACHE = new InputSnapshot[1 << (2 * PRESSED_SHIFT)];
+
+    public static final InputSnapshot NONE;
+
+    static {
+        for (int bits = 0; bits < CACHE.length; bits++) {
+            CACHE[bits] = new InputSnapshot(bits);
+        }
+        NONE = CACHE[0];
+    }
+
+    private final int bits;
+
+    private InputSnapshot(int bits) {
+        this.bits = bits;
+    }
+
+    public static InputSnapshot of(int held, int pressed) {
+        return CACHE[(held & KEY_MASK) | (pressed & KEY_MASK) << PRESSED_SHIFT];
+    }
+
+    // Umkehrung von getBits(), z.B. für aufgezeichnete Eingabe
+    public static InputSnapshot fromBits(int bits) {
+        return CACHE[bits & (CACHE.length - 1)];
+    }
+
+    // Gehaltene und gedrückte Tasten in einem Byte
+    public int getBits() {
+        return bits;
+    }
+
+    public int getHeld() {
+        return bits & KEY_MASK;
+    }
+
+    public int getPressed() {
+        return bits >>> PRESSED_SHIFT;
+    }
+
+    // Taste gehalten oder in diesem Tick gedrückt
+    public boolean isDown(int key) {
+        return ((getHeld() | getPressed()) & key) != 0;
+    }
+
+    public boolean wasPressed(int key) {
+        return (getPressed() & key) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "InputSnapshot[held=" + getHeld() + ", pressed=" + getPressed() + "]";
+    }
+}
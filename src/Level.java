@@ -1,95 +1,624 @@
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
 import javax.imageio.ImageIO;
 
 
 public class Level {
-    BufferedImage levelImg, resultingLevelImg;
+    BufferedImage levelImg;
     Vec2 lvlSize;
     float offsetX;
-    public static ArrayList<BufferedImage> tileImages = new ArrayList<>();
-    public int tileSize = 70;
+    // Kameraposition des vorherigen Ticks, für die Interpolation beim Zeichnen
+    float prevOffsetX;
+    // Kantenlänge der Tile-Bilder in Pixeln
+    public static final int TILE_SIZE = 70;
+    public int tileSize = TILE_SIZE;
 
-    // Neue ArrayList für Tiles
-    private ArrayList<Tile> tiles = new ArrayList<>();
+    // Tile-Bilder, Index = tileIndex. Kommen aus dem AssetManager und werden
+    // daher zwischen mehreren Leveln geteilt statt jedes Mal neu geladen.
+    public static final String[] TILE_ASSETS = {
+            "Tiles/grassMid.png",
+            "Tiles/liquidWaterTop_mid.png"
+    };
+    private static final Color[] TILE_FALLBACK_COLORS = {
+            new Color(90, 160, 60),
+            new Color(60, 120, 220)
+    };
+    private final BufferedImage[] tileImages = new BufferedImage[TILE_ASSETS.length];
+
+    // Animierte Tile-Typen: Anzahl Frames (1 = statisch) und ein Atlas mit allen Frames
+    // nebeneinander. Fehlt der Atlas, werden die Frames aus dem Tile-Bild erzeugt.
+    private static final int[] TILE_FRAME_COUNTS = {1, 8};
+    private static final String[] TILE_ATLAS_ASSETS = {
+            null,
+            "Tiles/liquidWaterTop_mid_anim.png"
+    };
+    // So viele Referenz-Ticks steht ein Frame
+    public static final int ANIMATION_TICKS = 12;
+    // Frames je Tile-Typ, bei statischen Tiles nur das Tile-Bild. Erst beim ersten Zeichnen
+    // geladen, die Simulation allein braucht sie nicht.
+    private final BufferedImage[][] tileFrames = new BufferedImage[TILE_ASSETS.length][];
+
+    // Ob ein Tile-Typ die Spielfigur blockiert, Index = tileIndex
+    private static final boolean[] TILE_SOLID = {true, true};
+    // Tile-Index der Wasseroberfläche, dort gibt es Spritzer statt Staub
+    public static final int TILE_WATER = 1;
+
+    // Kompaktes Raster, Zeile für Zeile: ein Byte Tile-Index pro Zelle (-1 = leer)
+    // und ein Bit pro Zelle für "fest". Kollision arbeitet direkt darauf.
+    private byte[] tileIndices;
+    // Hintergrundebene ohne Kollision (Ebene 1 der .lvl-Datei), null wenn es keine gibt
+    private byte[] backgroundIndices = null;
+    // Anzahl Zellen mit animiertem Tile pro Rasterspalte, in beiden Ebenen zusammen
+    private int[] animatedPerColumn;
+    private long[] solidMask;
+    private int gridWidth;
+    private int gridHeight;
+    private int tileCount;
+    // Vorhandene Spalten columnStart..columnEnd-1. Bei Leveln aus einer Datei immer das ganze
+    // Raster, beim endlosen Level ein Ringpuffer: Spalte c liegt in Rasterspalte c & columnMask.
+    private int columnStart;
+    private int columnEnd;
+    private int columnMask = -1;
+    // Wird bei jeder Änderung am Raster erhöht, z.B. für den Navigationsgraphen
+    private int tileVersion = 0;
+
+    // Tile-Objekte nur noch als Ansicht für ältere Aufrufer, werden bei Bedarf erzeugt
+    private ArrayList<Tile> tiles = null;
+
+    // Große Karten werden in Bändern von BAND_CELLS Zellen parallel ausgewertet. Ein Band
+    // ist ein Vielfaches von 64 Zellen, damit sich zwei Bänder kein long der Solid-Maske teilen.
+    private static final int BAND_CELLS = 64 * 1024;
+    // Darunter lohnt sich die Verteilung auf den Pool nicht
+    private static final int PARALLEL_CELLS = 4 * BAND_CELLS;
+
+    // Endloses Level: so viele Chunks fasst der Ring, älteste werden überschrieben. Muss
+    // eine Zweierpotenz sein und reicht bei der Vorschau unten weit hinter die Kamera.
+    private static final int RING_CHUNKS = 8;
+    // So viele Spalten rechts vom Bildschirmrand sollen immer schon da sein
+    private static final int STREAM_AHEAD_COLUMNS = 64;
+    // Chunk-Puffer im Umlauf, begrenzt auch die Aufträge an den Generator
+    private static final int CHUNK_POOL = 3;
+
+    private static final Executor GENERATOR_THREAD = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "level-generator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Nur beim endlosen Level gesetzt
+    private LevelGenerator generator = null;
+    // Auf fehlende Chunks warten statt weiterzuspielen, damit Aufnahmen reproduzierbar bleiben
+    private boolean waitForChunks;
+    private BlockingQueue<LevelGenerator.Chunk> freeChunks;
+    private BlockingQueue<LevelGenerator.Chunk> readyChunks;
+    private long nextChunk = 0;
+
+    // false, wenn die Datei nicht gelesen werden konnte, das Level ist dann leer
+    private boolean loaded = true;
 
     public Level(String levelMapPath) {
         try {
             lvlSize = new Vec2(0, 0);
             offsetX = 0.0f;
 
-            try {
-                // Level image
-                levelImg = ImageIO.read(new File(levelMapPath));
-
-                // Tile images
-                tileImages.add(ImageIO.read(new File("./assets/Tiles/grassMid.png")));
-                tileImages.add(ImageIO.read(new File("./assets/Tiles/liquidWaterTop_mid.png")));
-            } catch (IOException e) {
-                e.printStackTrace();
+            // Loader nach Dateiendung wählen: .lvl binär, sonst Bild (.bmp)
+            if (LevelFile.isLevelFile(levelMapPath)) {
+                LevelFile file = LevelFile.read(levelMapPath);
+                tileSize = file.tileSize;
+                loadTileImages();
+                setGrid(file.width, file.height, file.layers[0]);
+                if (file.layers.length > 1) {
+                    backgroundIndices = file.layers[1];
+                }
+                countAnimatedTiles();
+            } else {
+                try {
+                    // Level image
+                    levelImg = ImageIO.read(new File(levelMapPath));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                loadTileImages();
+                initLevel();
             }
-            initLevel();
         } catch (Exception e) {
             e.printStackTrace();
+            loaded = false;
+        }
+    }
+
+    // Level direkt aus einer bereits geladenen Karte erzeugen (z.B. für Benchmarks)
+    public Level(BufferedImage levelMap) {
+        lvlSize = new Vec2(0, 0);
+        offsetX = 0.0f;
+        levelImg = levelMap;
+
+        loadTileImages();
+        initLevel();
+    }
+
+    // Endloses Level aus dem Generator. Die ersten Chunks werden gleich hier erzeugt,
+    // alle weiteren in update() im Hintergrund.
+    public Level(LevelGenerator generator, boolean waitForChunks) {
+        lvlSize = new Vec2(0, 0);
+        offsetX = 0.0f;
+        this.generator = generator;
+        this.waitForChunks = waitForChunks;
+
+        loadTileImages();
+        int columns = RING_CHUNKS * LevelGenerator.CHUNK_COLUMNS;
+        byte[] indices = new byte[columns * LevelGenerator.HEIGHT];
+        Arrays.fill(indices, (byte) -1);
+        prepareGrid(columns, LevelGenerator.HEIGHT, indices);
+        columnEnd = 0;
+        columnMask = columns - 1;
+        lvlSize.x = 0;
+
+        freeChunks = new ArrayBlockingQueue<>(CHUNK_POOL);
+        readyChunks = new ArrayBlockingQueue<>(CHUNK_POOL);
+        for (int i = 0; i < CHUNK_POOL; i++) {
+            freeChunks.add(new LevelGenerator.Chunk(generator, readyChunks));
         }
+        streamChunks(true);
+    }
+
+    // Level zu einem Pfad, "endless:<seed>" ergibt ein endloses Level
+    public static Level open(String path, boolean waitForChunks) {
+        if (LevelGenerator.isEndless(path))
+            return new Level(LevelGenerator.fromPath(path), waitForChunks);
+        return new Level(path);
+    }
+
+    private void loadTileImages() {
+        AssetManager assets = AssetManager.getInstance();
+        assets.preload(TILE_ASSETS);
+
+        for (int i = 0; i < TILE_ASSETS.length; i++) {
+            tileImages[i] = assets.getImage(TILE_ASSETS[i]);
+            if (tileImages[i] == null) {
+                System.out.println("Could not load " + TILE_ASSETS[i] + ", creating fallback tile");
+                tileImages[i] = createFallbackTile(TILE_FALLBACK_COLORS[i]);
+            }
+        }
+    }
+
+    // Frames aus dem Atlas schneiden, ohne Atlas das Tile-Bild seitlich durchschieben
+    private BufferedImage[] loadFrames(int tileIndex) {
+        int count = TILE_FRAME_COUNTS[tileIndex];
+        BufferedImage image = tileImages[tileIndex];
+        if (count == 1)
+            return new BufferedImage[]{image};
+
+        AssetManager assets = AssetManager.getInstance();
+        BufferedImage atlas = assets.getImage(TILE_ATLAS_ASSETS[tileIndex]);
+        int width = image.getWidth();
+        BufferedImage[] frames = new BufferedImage[count];
+        if (atlas != null && atlas.getWidth() >= count * width) {
+            for (int f = 0; f < count; f++) {
+                frames[f] = atlas.getSubimage(f * width, 0, width, atlas.getHeight());
+            }
+            return frames;
+        }
+
+        for (int f = 0; f < count; f++) {
+            BufferedImage frame = new BufferedImage(width, image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = frame.createGraphics();
+            int shift = f * width / count;
+            g.drawImage(image, -shift, 0, null);
+            g.drawImage(image, width - shift, 0, null);
+            g.dispose();
+            frames[f] = assets.toCompatibleImage(frame);
+        }
+        return frames;
+    }
+
+    // Einfarbige Kachel, falls das Bild fehlt
+    private BufferedImage createFallbackTile(Color fallbackColor) {
+        BufferedImage tile = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = tile.createGraphics();
+        g.setColor(fallbackColor);
+        g.fillRect(0, 0, tileSize, tileSize);
+        g.dispose();
+        return AssetManager.getInstance().toCompatibleImage(tile);
     }
 
     public void update() {
-        if (offsetX < 0)
-            offsetX = 0;
+        if (generator != null) {
+            streamChunks(waitForChunks);
+        }
+        prevOffsetX = offsetX;
+
+        if (offsetX < getMinX())
+            offsetX = getMinX();
 
-        if (offsetX > resultingLevelImg.getWidth() - 1000)
-            offsetX = resultingLevelImg.getWidth() - 1000;
+        if (offsetX > lvlSize.x - 1000)
+            offsetX = lvlSize.x - 1000;
     }
 
+    // Fertige Chunks übernehmen und neue anfordern, bis STREAM_AHEAD_COLUMNS Spalten rechts
+    // vom Bildschirm vorhanden sind. wait: fehlende Chunks abwarten, sonst nie blockieren.
+    private void streamChunks(boolean wait) {
+        LevelGenerator.Chunk chunk;
+        while ((chunk = readyChunks.poll()) != null) {
+            installChunk(chunk);
+        }
+
+        int wanted = (int) ((offsetX + GameRenderer.VIEWPORT_WIDTH) / tileSize) + STREAM_AHEAD_COLUMNS;
+        while (nextChunk * LevelGenerator.CHUNK_COLUMNS < wanted && (chunk = freeChunks.poll()) != null) {
+            chunk.index = nextChunk++;
+            GENERATOR_THREAD.execute(chunk);
+        }
+
+        try {
+            while (wait && columnEnd < wanted) {
+                installChunk(readyChunks.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Chunk hinten anhängen, dabei wird der älteste Chunk im Ring überschrieben
+    private void installChunk(LevelGenerator.Chunk chunk) {
+        int chunkColumns = LevelGenerator.CHUNK_COLUMNS;
+        for (int y = 0; y < gridHeight; y++) {
+            for (int x = 0; x < chunkColumns; x++) {
+                int cell = y * gridWidth + ((columnEnd + x) & columnMask);
+                if (tileIndices[cell] >= 0) {
+                    tileCount--;
+                }
+
+                int tileIndex = chunk.tiles[y * chunkColumns + x];
+                tileIndices[cell] = (byte) tileIndex;
+                if (tileIndex >= 0 && TILE_SOLID[tileIndex]) {
+                    solidMask[cell >>> 6] |= 1L << cell;
+                } else {
+                    solidMask[cell >>> 6] &= ~(1L << cell);
+                }
+                if (tileIndex >= 0) {
+                    tileCount++;
+                }
+            }
+        }
+
+        for (int x = 0; x < chunkColumns; x++) {
+            int column = (columnEnd + x) & columnMask;
+            animatedPerColumn[column] = 0;
+            for (int y = 0; y < gridHeight; y++) {
+                if (isAnimatedAt(y * gridWidth + column)) {
+                    animatedPerColumn[column]++;
+                }
+            }
+        }
+
+        columnEnd += chunkColumns;
+        columnStart = Math.max(0, columnEnd - gridWidth);
+        lvlSize.x = tileSize * columnEnd;
+        tiles = null;
+        tileVersion++;
+        freeChunks.add(chunk);
+    }
+
+    // Das Level wird nicht mehr als ein großes Bild gebacken, das Zeichnen
+    // übernimmt der LevelRenderer abschnittsweise aus dem Tile-Raster.
     public void initLevel() {
-        lvlSize.x = tileSize * levelImg.getWidth(null);
-        lvlSize.y = tileSize * levelImg.getHeight(null);
+        initLevel(levelImg.getWidth() * levelImg.getHeight() >= PARALLEL_CELLS);
+    }
+
+    // parallel: Bänder auf dem ForkJoinPool auswerten statt nacheinander
+    void initLevel(boolean parallel) {
+        int width = levelImg.getWidth();
+        int height = levelImg.getHeight();
+        int[] pixels = rawPixels(levelImg);
+        byte[] bgr = pixels == null ? rawBgr(levelImg) : null;
+        byte[] indices = new byte[width * height];
+
+        prepareGrid(width, height, indices);
+        tileCount = forEachBand(indices.length, parallel, (from, to) -> {
+            classifyBand(pixels, bgr, indices, from, to);
+            return markSolid(indices, from, to);
+        });
+        countAnimatedTiles();
+    }
+
+    // Die int-Pixel direkt aus dem Raster, falls das Bild so gespeichert ist (z.B. TYPE_INT_RGB),
+    // sonst null. Das Bild wird danach nicht mehr beschleunigt gezeichnet, was hier egal ist.
+    private static int[] rawPixels(BufferedImage image) {
+        int type = image.getType();
+        if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB)
+            return null;
 
-        resultingLevelImg = new BufferedImage((int) lvlSize.x, (int) lvlSize.y, BufferedImage.TYPE_INT_RGB);
+        Raster raster = image.getRaster();
+        if (!(raster.getDataBuffer() instanceof DataBufferInt)
+                || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+                || ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() != image.getWidth()
+                || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0)
+            return null;
 
-        Graphics2D g2d;
-        g2d = (Graphics2D) resultingLevelImg.getGraphics();
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        return buffer.getOffset() == 0 ? buffer.getData() : null;
+    }
+
+    // Die Bytes direkt aus dem Raster für TYPE_3BYTE_BGR (so liefert ImageIO die .bmp-Level),
+    // drei Bytes pro Pixel in der Reihenfolge Blau, Grün, Rot. Sonst null.
+    private static byte[] rawBgr(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_3BYTE_BGR)
+            return null;
+
+        Raster raster = image.getRaster();
+        if (!(raster.getDataBuffer() instanceof DataBufferByte)
+                || !(raster.getSampleModel() instanceof ComponentSampleModel)
+                || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0)
+            return null;
+
+        ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+        int[] offsets = model.getBandOffsets();
+        if (model.getPixelStride() != 3 || model.getScanlineStride() != 3 * image.getWidth()
+                || offsets.length != 3 || offsets[0] != 2 || offsets[1] != 1 || offsets[2] != 0)
+            return null;
+
+        DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+        return buffer.getOffset() == 0 ? buffer.getData() : null;
+    }
+
+    // Tile-Index für die Zellen from..to-1. Liest aus pixels oder bgr, wenn es die Rohdaten
+    // gibt, sonst zeilenweise über getRGB.
+    private void classifyBand(int[] pixels, byte[] bgr, byte[] indices, int from, int to) {
+        if (pixels != null) {
+            for (int cell = from; cell < to; cell++) {
+                indices[cell] = (byte) tileIndexForColor(pixels[cell]);
+            }
+            return;
+        }
+        if (bgr != null) {
+            for (int cell = from, i = from * 3; cell < to; cell++, i += 3) {
+                int rgb = (bgr[i + 2] & 0xFF) << 16 | (bgr[i + 1] & 0xFF) << 8 | (bgr[i] & 0xFF);
+                indices[cell] = (byte) tileIndexForColor(rgb);
+            }
+            return;
+        }
 
-        for (int y = 0; y < levelImg.getHeight(null); y++) {
-            for (int x = 0; x < levelImg.getWidth(null); x++) {
+        int[] row = new int[Math.min(gridWidth, to - from)];
+        for (int cell = from; cell < to; ) {
+            int y = cell / gridWidth;
+            int x = cell - y * gridWidth;
+            int length = Math.min(gridWidth - x, to - cell);
+            levelImg.getRGB(x, y, length, 1, row, 0, length);
+            for (int i = 0; i < length; i++) {
+                indices[cell + i] = (byte) tileIndexForColor(row[i]);
+            }
+            cell += length;
+        }
+    }
 
-                Color color = new Color(levelImg.getRGB(x, y));
+    // Compare color of pixels in order to select the corresponding tiles, -1 = leer
+    public static int tileIndexForColor(int rgb) {
+        switch (rgb & 0xFFFFFF) {
+            case 0x000000: // Schwarz
+                return 0;
+            case 0x0000FF: // Blau
+                return 1;
+            default:
+                return -1;
+        }
+    }
 
-                int tileIndex = -1;
+    // Übernimmt das Tile-Raster (Zeile für Zeile, -1 = leer) und baut die Solid-Maske
+    private void setGrid(int width, int height, byte[] indices) {
+        prepareGrid(width, height, indices);
+        tileCount = forEachBand(indices.length, indices.length >= PARALLEL_CELLS,
+                (from, to) -> markSolid(indices, from, to));
+    }
 
-                // Compare color of pixels in order to select the corresponding tiles
+    private void prepareGrid(int width, int height, byte[] indices) {
+        lvlSize.x = tileSize * width;
+        lvlSize.y = tileSize * height;
 
-                if (color.equals(Color.BLACK))
-                    tileIndex = 0;
-                if (color.equals(Color.BLUE))
-                    tileIndex = 1;
+        gridWidth = width;
+        gridHeight = height;
+        columnStart = 0;
+        columnEnd = width;
+        tileIndices = indices;
+        backgroundIndices = null;
+        animatedPerColumn = new int[width];
+        solidMask = new long[(gridWidth * gridHeight + 63) >>> 6];
+        tileCount = 0;
+        tiles = null;
+        tileVersion++;
+    }
 
-                if (tileIndex < 0)
-                    continue;
+    // Solid-Bits für die Zellen from..to-1 setzen, liefert die Anzahl Tiles darin
+    private int markSolid(byte[] indices, int from, int to) {
+        int count = 0;
+        for (int cell = from; cell < to; cell++) {
+            int tileIndex = indices[cell];
+            if (tileIndex < 0)
+                continue;
 
-                // Tile zur Liste hinzufügen
-                Tile tile = new Tile(x * tileSize, y * tileSize, tileSize, tileIndex);
-                tiles.add(tile);
+            if (TILE_SOLID[tileIndex]) {
+                solidMask[cell >>> 6] |= 1L << cell;
+            }
+            count++;
+        }
+        return count;
+    }
 
-                g2d.drawImage(tileImages.get(tileIndex), null, x * tileSize, y * tileSize);
+    // animatedPerColumn für das ganze Raster neu zählen
+    private void countAnimatedTiles() {
+        Arrays.fill(animatedPerColumn, 0);
+        for (int y = 0; y < gridHeight; y++) {
+            int row = y * gridWidth;
+            for (int x = 0; x < gridWidth; x++) {
+                if (isAnimatedAt(row + x)) {
+                    animatedPerColumn[x]++;
+                }
             }
         }
-        g2d.dispose();
     }
 
-    public Image getResultingImage() {
-        return resultingLevelImg;
+    private boolean isAnimatedAt(int cell) {
+        return isAnimated(tileIndices[cell])
+                || (backgroundIndices != null && isAnimated(backgroundIndices[cell]));
+    }
+
+    private interface Band {
+        int process(int from, int to);
+    }
+
+    // Führt band für alle Bänder aus und summiert die Ergebnisse
+    private static int forEachBand(int cells, boolean parallel, Band band) {
+        int bandCount = (cells + BAND_CELLS - 1) / BAND_CELLS;
+        IntStream bands = IntStream.range(0, bandCount);
+        if (parallel) {
+            bands = bands.parallel();
+        }
+        return bands.map(i -> band.process(i * BAND_CELLS, Math.min(cells, (i + 1) * BAND_CELLS))).sum();
+    }
+
+    public float getRenderOffsetX(float alpha) {
+        return prevOffsetX + (offsetX - prevOffsetX) * alpha;
+    }
+
+    public BufferedImage getTileImage(int tileIndex) {
+        return tileImages[tileIndex];
     }
 
-    // Getter für Tiles
+    public static boolean isAnimated(int tileIndex) {
+        return tileIndex >= 0 && TILE_FRAME_COUNTS[tileIndex] > 1;
+    }
+
+    // Bild eines Tiles im Animationsschritt frame (läuft endlos weiter)
+    public BufferedImage getTileFrame(int tileIndex, int frame) {
+        BufferedImage[] frames = tileFrames[tileIndex];
+        if (frames == null) {
+            frames = loadFrames(tileIndex);
+            tileFrames[tileIndex] = frames;
+        }
+        return frames[frame % frames.length];
+    }
+
+    public boolean hasBackground() {
+        return backgroundIndices != null;
+    }
+
+    // Tile-Index der Hintergrundebene, -1 wenn leer. x wie bei getTileIndex().
+    public int getBackgroundTileIndex(int x, int y) {
+        return backgroundIndices == null ? -1 : backgroundIndices[y * gridWidth + (x & columnMask)];
+    }
+
+    // Anzahl animierter Zellen in Spalte x, 0 = die Spalte ist komplett statisch
+    public int getAnimatedCount(int x) {
+        return animatedPerColumn[x & columnMask];
+    }
+
+    // Ob in einer der Ebenen an dieser Zelle ein animiertes Tile liegt
+    public boolean isAnimatedCell(int x, int y) {
+        return isAnimatedAt(y * gridWidth + (x & columnMask));
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    public int getGridHeight() {
+        return gridHeight;
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    // Erste vorhandene und erste nicht mehr vorhandene Spalte. Beim endlosen Level
+    // wandern beide mit, dazwischen liegen höchstens getGridWidth() Spalten.
+    public int getColumnStart() {
+        return columnStart;
+    }
+
+    public int getColumnEnd() {
+        return columnEnd;
+    }
+
+    // Linke Grenze für Kamera und Entities, hinter die verworfenen Chunks geht es nicht zurück
+    public float getMinX() {
+        return columnStart * tileSize;
+    }
+
+    public int getTileVersion() {
+        return tileVersion;
+    }
+
+    public boolean isEndless() {
+        return generator != null;
+    }
+
+    // Tile-Index an der Tile-Koordinate, -1 wenn leer. x muss vorhanden sein (siehe getColumnStart).
+    public int getTileIndex(int x, int y) {
+        return tileIndices[y * gridWidth + (x & columnMask)];
+    }
+
+    // Tile-Index an einer Position in Pixeln, -1 wenn leer oder außerhalb des Levels
+    public int getTileIndexAt(float worldX, float worldY) {
+        if (worldX < 0 || worldY < 0)
+            return -1;
+
+        int x = (int) (worldX / tileSize);
+        int y = (int) (worldY / tileSize);
+        if (x < columnStart || x >= columnEnd || y >= gridHeight)
+            return -1;
+        return getTileIndex(x, y);
+    }
+
+    // Ob die Zelle die Spielfigur blockiert, außerhalb des Levels immer false
+    public boolean isSolid(int x, int y) {
+        if (x < columnStart || y < 0 || x >= columnEnd || y >= gridHeight)
+            return false;
+
+        int cell = y * gridWidth + (x & columnMask);
+        return (solidMask[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // Erste bzw. letzte Zelle, die eine Kante bei coord (Pixel) noch berührt
+    public int firstCellTouching(float coord) {
+        return (int) Math.ceil(coord / tileSize) - 1;
+    }
+
+    public int lastCellTouching(float coord) {
+        return (int) Math.floor(coord / tileSize);
+    }
+
+    // Getter für Tiles. Erzeugt die Tile-Objekte beim ersten Aufruf aus dem Raster.
     public ArrayList<Tile> getTiles() {
+        if (tiles == null) {
+            tiles = new ArrayList<>(tileCount);
+            for (int y = 0; y < gridHeight; y++) {
+                for (int x = columnStart; x < columnEnd; x++) {
+                    int tileIndex = getTileIndex(x, y);
+                    if (tileIndex >= 0) {
+                        tiles.add(new Tile(x * tileSize, y * tileSize, tileSize, tileIndex));
+                    }
+                }
+            }
+        }
         return tiles;
     }
 }
\ No newline at end of file
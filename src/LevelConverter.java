@@ -0,0 +1,72 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+// Wandelt Level-Bilder (.bmp) in das binäre .lvl-Format um.
+// Start: java LevelConverter level1.bmp level2.bmp ...
+// Die .lvl-Datei landet neben dem Bild. Liegt daneben <name>_bg.bmp, wird sie zur
+// Hintergrundebene (Ebene 1, ohne Kollision).
+public class LevelConverter {
+    // Bild für die Hintergrundebene neben dem Level, z.B. level1_bg.bmp
+    static final String BACKGROUND_SUFFIX = "_bg.bmp";
+
+    public static void main(final String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java LevelConverter <level.bmp> [...]");
+            return;
+        }
+
+        for (String path : args) {
+            try {
+                String target = convert(path);
+                System.out.println("Converted " + path + " -> " + target);
+            } catch (IOException e) {
+                System.err.println("Could not convert " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public static String convert(String imagePath) throws IOException {
+        BufferedImage image = readImage(imagePath);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] indices = classify(image);
+
+        String base = imagePath.replaceFirst("\\.[^.\\\\/]*$", "");
+        String target = base + LevelFile.EXTENSION;
+
+        // Optionale Hintergrundebene aus <name>_bg.bmp, gleiche Größe und Farben
+        File backgroundFile = new File(base + BACKGROUND_SUFFIX);
+        if (backgroundFile.isFile()) {
+            BufferedImage background = readImage(backgroundFile.getPath());
+            if (background.getWidth() != width || background.getHeight() != height) {
+                throw new IOException(backgroundFile + " does not match the level size");
+            }
+            new LevelFile(width, height, Level.TILE_SIZE, indices, classify(background)).write(target);
+        } else {
+            new LevelFile(width, height, Level.TILE_SIZE, indices).write(target);
+        }
+        return target;
+    }
+
+    private static BufferedImage readImage(String path) throws IOException {
+        BufferedImage image = ImageIO.read(new File(path));
+        if (image == null) {
+            throw new IOException("unsupported image format");
+        }
+        return image;
+    }
+
+    private static byte[] classify(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        byte[] indices = new byte[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            indices[i] = (byte) Level.tileIndexForColor(pixels[i]);
+        }
+        return indices;
+    }
+}
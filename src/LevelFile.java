@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Kompaktes binäres Levelformat (.lvl), wird per Memory-Map geladen.
+//
+// Aufbau (big-endian):
+//   int    Magic "PLVL"
+//   short  Version
+//   short  reserviert (0)
+//   int    Breite in Tiles
+//   int    Höhe in Tiles
+//   int    Tile-Größe in Pixeln
+//   int    Anzahl Ebenen
+//   danach pro Ebene Breite * Höhe Bytes, Zeile für Zeile.
+//   Ebene 0 enthält die Tile-Indizes (-1 = leer), Ebene 1 optional den Hintergrund
+//   (gleiche Indizes, ohne Kollision). Ob ein Tile animiert ist, hängt am Tile-Index.
+public class LevelFile {
+    public static final String EXTENSION = ".lvl";
+
+    private static final int MAGIC = 0x504C564C;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    final int width;
+    final int height;
+    final int tileSize;
+    final byte[][] layers;
+
+    public LevelFile(int width, int height, int tileSize, byte[]... layers) {
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.layers = layers;
+    }
+
+    public static boolean isLevelFile(String path) {
+        return path.toLowerCase().endsWith(EXTENSION);
+    }
+
+    public static LevelFile read(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not a level file");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException(path + ": unsupported level file version " + version);
+            }
+            buffer.getShort();
+
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int tileSize = buffer.getInt();
+            int layerCount = buffer.getInt();
+
+            long expected = HEADER_SIZE + (long) layerCount * width * height;
+            if (width <= 0 || height <= 0 || layerCount < 1 || (long) width * height > Integer.MAX_VALUE
+                    || buffer.capacity() < expected) {
+                throw new IOException(path + ": corrupt level file header");
+            }
+            // Die Tile-Bilder haben eine feste Größe, andere Werte kann kein Renderer zeichnen
+            if (tileSize != Level.TILE_SIZE) {
+                throw new IOException(path + ": unsupported tile size " + tileSize);
+            }
+
+            byte[][] layers = new byte[layerCount][width * height];
+            for (int i = 0; i < layerCount; i++) {
+                buffer.get(layers[i]);
+                checkTiles(path, i, layers[i]);
+            }
+            return new LevelFile(width, height, tileSize, layers);
+        }
+    }
+
+    // Jedes Byte muss leer (-1) oder ein gültiger Tile-Index sein, sonst scheitert Level
+    // erst mitten im Aufbau
+    private static void checkTiles(String path, int layer, byte[] tiles) throws IOException {
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] < -1 || tiles[i] >= Level.TILE_ASSETS.length) {
+                throw new IOException(path + ": invalid tile index " + tiles[i] + " in layer " + layer
+                        + " at offset " + i);
+            }
+        }
+    }
+
+    public void write(String path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + layers.length * width * height);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.putInt(tileSize);
+        buffer.putInt(layers.length);
+        for (byte[] layer : layers) {
+            buffer.put(layer);
+        }
+
+        Files.write(Paths.get(path), buffer.array());
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+
+// Erzeugt ein endloses Level Chunk für Chunk. Ein Chunk hängt nur vom Seed und seiner
+// Nummer ab, nicht von vorherigen Chunks oder der Reihenfolge; derselbe Seed ergibt also
+// immer dasselbe Level, egal auf welchem Thread und wann generiert wird.
+//
+// Aufbau: Abschnitte von SEGMENT_COLUMNS Spalten mit eigener Bodenhöhe. Jeder zweite
+// Abschnitt liegt auf mittlerer Höhe, so ist jede Stufe höchstens ein Tile hoch und
+// mit einem Sprung zu schaffen. Dazu Wasserbecken, schwebende Plattformen und Säulen.
+public class LevelGenerator {
+    // Pfad für Level.open(), z.B. "endless:42"
+    public static final String PREFIX = "endless:";
+
+    public static final int CHUNK_COLUMNS = 32;
+    public static final int HEIGHT = 5;
+
+    private static final int SEGMENT_COLUMNS = 8;
+    private static final int SEGMENTS_PER_CHUNK = CHUNK_COLUMNS / SEGMENT_COLUMNS;
+    // Die ersten Abschnitte sind flach, dort startet die Spielfigur
+    private static final int START_SEGMENTS = 2;
+    private static final int MIDDLE_ROW = 3;
+
+    // Besonderheiten eines Abschnitts
+    private static final int PLAIN = 0;
+    private static final int WATER = 1;
+    private static final int PLATFORM = 2;
+    private static final int PILLAR = 3;
+    private static final int FEATURES = 4;
+
+    private static final byte EMPTY = -1;
+    private static final byte GROUND = 0;
+
+    private final long seed;
+
+    public LevelGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public static boolean isEndless(String path) {
+        return path.startsWith(PREFIX);
+    }
+
+    public static LevelGenerator fromPath(String path) {
+        return new LevelGenerator(Long.parseLong(path.substring(PREFIX.length())));
+    }
+
+    // Tiles von Chunk chunkIndex, Zeile für Zeile (tiles[row * CHUNK_COLUMNS + column])
+    public void generate(long chunkIndex, byte[] tiles) {
+        Arrays.fill(tiles, EMPTY);
+
+        for (int s = 0; s < SEGMENTS_PER_CHUNK; s++) {
+            long segment = chunkIndex * SEGMENTS_PER_CHUNK + s;
+            long random = mix(seed + segment * 0x9E3779B97F4A7C15L);
+
+            int surface = MIDDLE_ROW;
+            int feature = PLAIN;
+            if (segment >= START_SEGMENTS) {
+                if ((segment & 1) == 0) {
+                    surface = MIDDLE_ROW - 1 + (int) Long.remainderUnsigned(random, 3);
+                }
+                feature = (int) Long.remainderUnsigned(random >>> 16, FEATURES);
+            }
+
+            int first = s * SEGMENT_COLUMNS;
+            for (int x = 0; x < SEGMENT_COLUMNS; x++) {
+                int column = first + x;
+                int top = surface;
+                // Säule nur, wenn darüber noch zwei Zeilen für die Spielfigur frei bleiben
+                if (feature == PILLAR && surface >= 3 && x == SEGMENT_COLUMNS / 2) {
+                    top = surface - 1;
+                }
+                for (int row = top; row < HEIGHT; row++) {
+                    tiles[row * CHUNK_COLUMNS + column] = GROUND;
+                }
+                if (feature == WATER && x >= 2 && x < SEGMENT_COLUMNS - 2) {
+                    tiles[surface * CHUNK_COLUMNS + column] = (byte) Level.TILE_WATER;
+                }
+            }
+
+            // Plattform mit zwei freien Zeilen darunter, passt nur über tiefem Boden
+            if (feature == PLATFORM && surface >= 3) {
+                int row = surface - 3;
+                for (int x = 2; x < 5; x++) {
+                    tiles[row * CHUNK_COLUMNS + first + x] = GROUND;
+                }
+            }
+        }
+    }
+
+    // SplitMix64-Finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Ein Chunk-Puffer. Wird als Auftrag an den Generator-Thread gegeben und landet
+    // danach in done; der Level legt ihn nach dem Übernehmen wieder in den Pool.
+    static final class Chunk implements Runnable {
+        final byte[] tiles = new byte[CHUNK_COLUMNS * HEIGHT];
+        private final LevelGenerator generator;
+        private final BlockingQueue<Chunk> done;
+        long index;
+
+        Chunk(LevelGenerator generator, BlockingQueue<Chunk> done) {
+            this.generator = generator;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            generator.generate(index, tiles);
+            done.offer(this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Zeichnet das Level in Abschnitten (Chunks) fester Breite. Chunks werden erst
+// gerastert, wenn sie in die Nähe der Kamera kommen, und per LRU wieder verworfen.
+// Der Speicherbedarf hängt damit von der Fensterbreite ab, nicht von der Levelgröße.
+public class LevelRenderer {
+    public static final int CHUNK_TILES = 16;
+
+    private final Level level;
+    private final int viewportWidth;
+    private final int chunkWidth;
+    private final int maxCachedChunks;
+
+    // Zugriffsreihenfolge = LRU, der älteste Chunk fliegt zuerst raus
+    private final LinkedHashMap<Integer, BufferedImage> chunks;
+
+    public LevelRenderer(Level level, int viewportWidth) {
+        this.level = level;
+        this.viewportWidth = viewportWidth;
+        this.chunkWidth = CHUNK_TILES * level.tileSize;
+
+        // Sichtbare Chunks + je einer links und rechts zum Vorladen
+        this.maxCachedChunks = (viewportWidth + chunkWidth - 1) / chunkWidth + 3;
+
+        this.chunks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+                if (size() > maxCachedChunks) {
+                    eldest.getValue().flush();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public void draw(Graphics2D g2d, int offsetX) {
+        // Beim endlosen Level wächst das Ende mit, verworfene Chunks am Anfang fallen aus dem LRU
+        int chunkCount = (level.getColumnEnd() + CHUNK_TILES - 1) / CHUNK_TILES;
+        int first = Math.max(level.getColumnStart() / CHUNK_TILES, offsetX / chunkWidth);
+        int last = Math.min(chunkCount - 1, (offsetX + viewportWidth - 1) / chunkWidth);
+
+        for (int i = first; i <= last; i++) {
+            g2d.drawImage(getChunk(i), i * chunkWidth - offsetX, 0, null);
+        }
+
+        // Nachbar-Chunks schon vorbereiten, damit beim Scrollen nichts fehlt
+        if (first > level.getColumnStart() / CHUNK_TILES) {
+            getChunk(first - 1);
+        }
+        if (last < chunkCount - 1) {
+            getChunk(last + 1);
+        }
+    }
+
+    public int getCachedChunkCount() {
+        return chunks.size();
+    }
+
+    private BufferedImage getChunk(int index) {
+        BufferedImage chunk = chunks.get(index);
+        if (chunk == null) {
+            chunk = rasterizeChunk(index);
+            chunks.put(index, chunk);
+        }
+        return chunk;
+    }
+
+    private BufferedImage rasterizeChunk(int index) {
+        int firstCol = index * CHUNK_TILES;
+        int cols = Math.min(CHUNK_TILES, level.getColumnEnd() - firstCol);
+        int tileSize = level.tileSize;
+
+        BufferedImage chunk = new BufferedImage(cols * tileSize, level.getGridHeight() * tileSize,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = chunk.createGraphics();
+
+        for (int y = 0; y < level.getGridHeight(); y++) {
+            for (int x = 0; x < cols; x++) {
+                paintStaticCell(g2d, level, firstCol + x, y, x * tileSize, y * tileSize);
+            }
+        }
+        g2d.dispose();
+        return chunk;
+    }
+
+    // Statische Tiles einer Zelle, Hintergrundebene zuerst. Zellen mit animiertem Tile
+    // bleiben frei, die zeichnet der AnimatedTileRenderer in jedem Frame neu.
+    static void paintStaticCell(Graphics2D g, Level level, int column, int row, int x, int y) {
+        if (level.isAnimatedCell(column, row))
+            return;
+
+        int background = level.getBackgroundTileIndex(column, row);
+        if (background >= 0) {
+            g.drawImage(level.getTileImage(background), x, y, null);
+        }
+        int tileIndex = level.getTileIndex(column, row);
+        if (tileIndex >= 0) {
+            g.drawImage(level.getTileImage(tileIndex), x, y, null);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Mehrere Level hintereinander. Nähert sich die Spielfigur dem Levelende, wird das
+// nächste Level im Hintergrund geladen; am Ende wechselt die Simulation zwischen zwei
+// Ticks darauf. Die Spielschleife wartet dabei nie auf die Platte.
+public class LevelSequence {
+    // Ab diesem Abstand zum Levelende (Pixel) wird das nächste Level geladen
+    public static final float PRELOAD_DISTANCE = 2000f;
+    // Ab diesem Abstand wird gewechselt
+    public static final float SWITCH_DISTANCE = 50f;
+
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "level-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<String> paths;
+    // Auf das Laden warten statt weiterzuspielen, damit Aufnahmen reproduzierbar bleiben
+    private final boolean waitForLoad;
+    private int current = 0;
+    private Future<Level> next = null;
+    private long loadNanos = 0;
+    private boolean failed = false;
+    private int switchCount = 0;
+
+    public LevelSequence(List<String> paths, boolean waitForLoad) {
+        if (paths.isEmpty())
+            throw new IllegalArgumentException("Level sequence is empty");
+
+        this.paths = new ArrayList<>(paths);
+        this.waitForLoad = waitForLoad;
+    }
+
+    // Durch Komma getrennte Pfade, z.B. "level1.lvl,level2.lvl"
+    public static LevelSequence parse(String paths, boolean waitForLoad) {
+        return new LevelSequence(Arrays.asList(paths.split(",")), waitForLoad);
+    }
+
+    // Das gewählte Level und alle folgenden Level (nach Name) im selben Ordner. Bilder für
+    // die Hintergrundebene (siehe LevelConverter) sind keine eigenen Level.
+    public static LevelSequence fromDirectory(File selected, boolean waitForLoad) {
+        String name = selected.getName();
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        File[] candidates = selected.getAbsoluteFile().getParentFile()
+                .listFiles((dir, file) -> file.endsWith("." + extension) && file.compareTo(name) >= 0
+                        && !file.toLowerCase().endsWith(LevelConverter.BACKGROUND_SUFFIX));
+
+        List<String> paths = new ArrayList<>();
+        if (candidates != null) {
+            Arrays.sort(candidates);
+            for (File file : candidates) {
+                paths.add(file.getPath());
+            }
+        }
+        if (paths.isEmpty()) {
+            paths.add(selected.getPath());
+        }
+        return new LevelSequence(paths, waitForLoad);
+    }
+
+    public Level loadFirst() {
+        return Level.open(paths.get(0), waitForLoad);
+    }
+
+    public String getCurrentPath() {
+        return paths.get(current);
+    }
+
+    public int getSwitchCount() {
+        return switchCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", paths);
+    }
+
+    // Einmal pro Tick. Liefert das nächste Level, wenn jetzt gewechselt werden soll, sonst null.
+    public Level update(Level level, float playerX) {
+        if (!preload(level, playerX))
+            return null;
+
+        float remaining = level.lvlSize.x - playerX;
+        if (next == null || remaining > SWITCH_DISTANCE)
+            return null;
+        if (!next.isDone() && !waitForLoad)
+            return null;
+        return takeNext();
+    }
+
+    // Nächstes Level im Hintergrund laden, sobald die Spielfigur nah genug am Ende ist.
+    // false, wenn es kein nächstes Level gibt.
+    public boolean preload(Level level, float playerX) {
+        if (failed || current + 1 >= paths.size())
+            return false;
+
+        if (next == null && level.lvlSize.x - playerX < PRELOAD_DISTANCE) {
+            String path = paths.get(current + 1);
+            next = LOADER.submit(() -> {
+                long start = System.nanoTime();
+                Level loaded = Level.open(path, waitForLoad);
+                loadNanos = System.nanoTime() - start;
+                // Level fängt Ladefehler selbst ab, hier als Fehler des Ladens melden
+                if (!loaded.isLoaded())
+                    throw new IOException("Could not load level " + path);
+                return loaded;
+            });
+        }
+        return true;
+    }
+
+    // Beim Abspielen einer Aufnahme: im aufgezeichneten Tick wechseln, egal wo die Spielfigur
+    // steht und wie lange das Laden dauert. Wartet nötigenfalls auf das Level.
+    public Level switchNow(Level level) {
+        if (!preload(level, level.lvlSize.x))
+            return null;
+        return takeNext();
+    }
+
+    private Level takeNext() {
+        Level loaded;
+        try {
+            loaded = next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // Level kaputt: im aktuellen Level bleiben
+            e.getCause().printStackTrace();
+            failed = true;
+            return null;
+        }
+
+        current++;
+        switchCount++;
+        next = null;
+        System.out.printf("Switching to %s (loaded in %.1f ms)%n", paths.get(current), loadNanos / 1e6);
+        return loaded;
+    }
+}
@@ -0,0 +1,140 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
+
+// Hält den sichtbaren Levelausschnitt als VolatileImage, also im Grafikspeicher.
+// Der Streifen ist ein Ringpuffer aus Tile-Spalten: Levelspalte c liegt im Slot
+// c % slotCount. Beim Scrollen werden nur die neu sichtbaren Spalten gezeichnet,
+// der Rest bleibt liegen. Pro Frame kostet das höchstens zwei Blits, egal wie groß
+// das Level ist.
+//
+// Ohne Bildschirm (headless) oder mit -Dplatformer.volatileStrip=false zeichnet
+// stattdessen der LevelRenderer aus gecachten Chunks.
+public class LevelStripRenderer {
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("platformer.volatileStrip", "true"));
+
+    private final Level level;
+    private final int viewportWidth;
+    private final int tileSize;
+    private final int slotCount;
+    private final int stripWidth;
+    private final int stripHeight;
+
+    // Levelspalte, die gerade in einem Slot liegt, -1 = leer oder verloren
+    private final int[] slotColumns;
+    private final LevelRenderer fallback;
+    private VolatileImage strip = null;
+
+    // Für die Messung: so viele Spalten wurden insgesamt neu gezeichnet
+    private long columnsPainted = 0;
+
+    public LevelStripRenderer(Level level, int viewportWidth) {
+        this.level = level;
+        this.viewportWidth = viewportWidth;
+        this.tileSize = level.tileSize;
+        // Ein Ausschnitt der Breite viewportWidth berührt höchstens so viele Spalten
+        this.slotCount = (viewportWidth + tileSize - 1) / tileSize + 1;
+        this.stripWidth = slotCount * tileSize;
+        this.stripHeight = level.getGridHeight() * tileSize;
+        this.slotColumns = new int[slotCount];
+        Arrays.fill(slotColumns, -1);
+
+        this.fallback = (ENABLED && !GraphicsEnvironment.isHeadless()) ? null : new LevelRenderer(level, viewportWidth);
+    }
+
+    public boolean isAccelerated() {
+        return fallback == null;
+    }
+
+    public long getColumnsPainted() {
+        return columnsPainted;
+    }
+
+    public void draw(Graphics2D g2d, int offsetX) {
+        if (fallback != null) {
+            fallback.draw(g2d, offsetX);
+            return;
+        }
+
+        offsetX = Math.max(0, offsetX);
+        GraphicsConfiguration config = g2d.getDeviceConfiguration();
+        do {
+            prepareStrip(config);
+            paintMissingColumns(offsetX);
+            blit(g2d, offsetX);
+        } while (strip.contentsLost());
+    }
+
+    // Streifen anlegen bzw. nach Verlust des Inhalts (z.B. Bildschirmwechsel) neu aufsetzen
+    private void prepareStrip(GraphicsConfiguration config) {
+        if (strip == null) {
+            strip = config.createCompatibleVolatileImage(stripWidth, stripHeight, Transparency.OPAQUE);
+            Arrays.fill(slotColumns, -1);
+            return;
+        }
+
+        int state = strip.validate(config);
+        if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+            strip.flush();
+            strip = config.createCompatibleVolatileImage(stripWidth, stripHeight, Transparency.OPAQUE);
+            Arrays.fill(slotColumns, -1);
+        } else if (state == VolatileImage.IMAGE_RESTORED) {
+            Arrays.fill(slotColumns, -1);
+        }
+    }
+
+    private void paintMissingColumns(int offsetX) {
+        int first = Math.max(0, offsetX / tileSize);
+        int last = (offsetX + viewportWidth - 1) / tileSize;
+
+        Graphics2D g = null;
+        for (int column = first; column <= last; column++) {
+            int slot = column % slotCount;
+            if (slotColumns[slot] == column)
+                continue;
+
+            if (g == null) {
+                g = strip.createGraphics();
+            }
+            paintColumn(g, column, slot * tileSize);
+            // Noch nicht erzeugte Spalten später erneut zeichnen
+            slotColumns[slot] = column < level.getColumnEnd() ? column : -1;
+            columnsPainted++;
+        }
+        if (g != null) {
+            g.dispose();
+        }
+    }
+
+    // Spalten außerhalb des vorhandenen Levels bleiben schwarz
+    private void paintColumn(Graphics2D g, int column, int x) {
+        g.setColor(Color.BLACK);
+        g.fillRect(x, 0, tileSize, stripHeight);
+        if (column < level.getColumnStart() || column >= level.getColumnEnd())
+            return;
+
+        for (int row = 0; row < level.getGridHeight(); row++) {
+            LevelRenderer.paintStaticCell(g, level, column, row, x, row * tileSize);
+        }
+    }
+
+    // Sichtbarer Bereich aus dem Ring, am Ende des Streifens ggf. in zwei Teilen
+    private void blit(Graphics2D g2d, int offsetX) {
+        int first = Math.max(0, offsetX / tileSize);
+        int stripX = (first % slotCount) * tileSize + (offsetX - first * tileSize);
+        int firstPart = Math.min(viewportWidth, stripWidth - stripX);
+
+        g2d.drawImage(strip, 0, 0, firstPart, stripHeight,
+                stripX, 0, stripX + firstPart, stripHeight, null);
+        if (firstPart < viewportWidth) {
+            int rest = viewportWidth - firstPart;
+            g2d.drawImage(strip, firstPart, 0, viewportWidth, stripHeight,
+                    0, 0, rest, stripHeight, null);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+// Lasttest für den GameServer: N Bots auf einem Thread, die zufällig laufen und springen.
+// Am Ende pro Bot empfangene und gesendete Bytes pro Sekunde, dazu die Tick-Dauer des
+// Servers aus den Snapshots.
+// Start: java LoadTestClient <level|host:port> [bots] [seconds]
+//   level: startet selbst einen GameServer auf 127.0.0.1 mit freiem Port
+public class LoadTestClient {
+    // So oft pro Sekunde liest jeder Bot und ändert evtl. seine Eingabe
+    private static final int POLL_RATE = 100;
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java LoadTestClient <level|host:port> [bots] [seconds]");
+            return;
+        }
+
+        int botCount = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        GameServer server = null;
+        String host = "127.0.0.1";
+        int port;
+        if (new File(args[0]).isFile()) {
+            server = new GameServer(args[0], 0, GameServer.DEFAULT_TICK_RATE);
+            server.start();
+            port = server.getPort();
+        } else {
+            int colon = args[0].lastIndexOf(':');
+            host = args[0].substring(0, colon);
+            port = Integer.parseInt(args[0].substring(colon + 1));
+        }
+
+        GameClient[] bots = new GameClient[botCount];
+        for (int i = 0; i < botCount; i++) {
+            bots[i] = GameClient.connect(host, port);
+            if (!bots[i].awaitWelcome(5000))
+                throw new IOException("Bot " + i + " got no welcome from " + host + ":" + port);
+        }
+        System.out.printf("%d bots connected to %s:%d, running %d s%n", botCount, host, port, seconds);
+
+        LatencyHistogram serverTicks = new LatencyHistogram();
+        long[] lastSnapshot = new long[botCount];
+        Random random = new Random(42);
+        int[] held = new int[botCount];
+
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        long step = 1_000_000_000L / POLL_RATE;
+        for (long next = start; next < end; next += step) {
+            for (int i = 0; i < botCount; i++) {
+                GameClient bot = bots[i];
+
+                // Etwa zweimal pro Sekunde die Richtung wechseln, ab und zu springen
+                if (random.nextInt(POLL_RATE / 2) == 0) {
+                    held[i] = random.nextBoolean() ? InputSnapshot.RIGHT : InputSnapshot.LEFT;
+                }
+                int jump = random.nextInt(POLL_RATE) == 0 ? InputSnapshot.JUMP : 0;
+                bot.sendInput(InputSnapshot.of(held[i] | jump, jump));
+                bot.poll();
+                bot.interpolate(System.nanoTime());
+
+                if (bot.getSnapshotCount() != lastSnapshot[i]) {
+                    lastSnapshot[i] = bot.getSnapshotCount();
+                    serverTicks.record(bot.getServerTickMicros() * 1000L);
+                }
+            }
+            LockSupport.parkNanos(next + step - System.nanoTime());
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("bot   snapshots/s   in KB/s   out B/s");
+        long totalIn = 0;
+        for (int i = 0; i < botCount; i++) {
+            GameClient bot = bots[i];
+            totalIn += bot.getBytesReceived();
+            System.out.printf("%3d   %11.1f   %7.2f   %7.1f%n", i, bot.getSnapshotCount() / elapsed,
+                    bot.getBytesReceived() / 1024.0 / elapsed, bot.getBytesSent() / elapsed);
+            bot.close();
+        }
+        System.out.printf("total in %.1f KB/s, %.2f KB/s per bot%n", totalIn / 1024.0 / elapsed,
+                totalIn / 1024.0 / elapsed / botCount);
+        System.out.printf("server tick (from snapshots): mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                serverTicks.getMean() / 1e3, serverTicks.getPercentile(50) / 1e3,
+                serverTicks.getPercentile(99) / 1e3, serverTicks.getMax() / 1e3);
+
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
@@ -1,5 +1,23 @@
 public class Main {
-    public static void main(final String[] args) {
+    public static void main(final String[] args) throws java.io.IOException {
+        // --headless <level.bmp> [ticks] [script]: Simulation ohne Fenster
+        // --headless --replay <session.inp> [runs]: aufgezeichnete Sitzung abspielen
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessRunner.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // --server <level> [port] [tickRate]: Mehrspieler-Server auf 127.0.0.1
+        // (Client: -Dplatformer.connect=127.0.0.1:7777)
+        if (args.length > 0 && args[0].equals("--server")) {
+            GameServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // --loadtest <level|host:port> [bots] [seconds]
+        if (args.length > 0 && args[0].equals("--loadtest")) {
+            LoadTestClient.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         new Platformer();
     }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Messwerte für Ticks und Frames: Laufzeit pro Phase als Histogramm, Tick- und
+// Bildrate, Allokationsrate des Spielschleifen-Threads. Dazu eigene JFR-Events,
+// die in einer Aufnahme (-XX:StartFlightRecording) mitgeschrieben werden.
+public class Metrics {
+    public static final int UPDATE = 0;
+    public static final int COLLISION = 1;
+    public static final int RENDER = 2;
+    public static final int PRESENT = 3;
+    public static final int FRAME = 4;
+    private static final String[] PHASE_NAMES = {"update", "collision", "render", "present", "frame"};
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASE_NAMES.length];
+    // Frame-Zeiten nur der letzten Sekunde, für die Anzeige
+    private final LatencyHistogram recentFrames = new LatencyHistogram();
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Nur vom Spielschleifen-Thread geschrieben
+    private long windowStart = System.nanoTime();
+    private long windowTicks = 0;
+    private long windowFrames = 0;
+    private long windowAllocated = -1;
+    private long lastFrame = 0;
+
+    // Summen über den ganzen Lauf, ab dem ersten Tick oder Frame, für writeCsv()
+    private long runStart = 0;
+    private long runAllocated = -1;
+    private long runThreadId = -1;
+    private long totalTicks = 0;
+    private long totalFrames = 0;
+
+    // Werte der letzten abgeschlossenen Sekunde, auch für andere Threads lesbar
+    private volatile double ticksPerSecond = 0;
+    private volatile double framesPerSecond = 0;
+    private volatile double allocatedMegabytesPerSecond = 0;
+    private volatile long frameP50 = 0;
+    private volatile long frameP99 = 0;
+
+    // Nur zum Prüfen, ob die Events gerade aufgezeichnet werden
+    private static final TickEvent TICK_PROBE = new TickEvent();
+    private static final FrameEvent FRAME_PROBE = new FrameEvent();
+
+    public Metrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    public LatencyHistogram getPhase(int phase) {
+        return phases[phase];
+    }
+
+    // now: System.nanoTime() am Ende des Ticks
+    public void tickFinished(long tick, long updateNanos, long collisionNanos, long now) {
+        phases[UPDATE].record(updateNanos);
+        phases[COLLISION].record(collisionNanos);
+        startRun(now);
+        windowTicks++;
+        totalTicks++;
+
+        if (TICK_PROBE.isEnabled()) {
+            TickEvent event = new TickEvent();
+            event.tick = tick;
+            event.update = updateNanos;
+            event.collision = collisionNanos;
+            event.commit();
+        }
+        rollWindow(now);
+    }
+
+    public void frameFinished(long renderNanos, long presentNanos) {
+        long now = System.nanoTime();
+        phases[RENDER].record(renderNanos);
+        phases[PRESENT].record(presentNanos);
+        if (lastFrame != 0) {
+            phases[FRAME].record(now - lastFrame);
+            recentFrames.record(now - lastFrame);
+        }
+        lastFrame = now;
+        startRun(now);
+        windowFrames++;
+        totalFrames++;
+
+        if (FRAME_PROBE.isEnabled()) {
+            FrameEvent event = new FrameEvent();
+            event.render = renderNanos;
+            event.present = presentNanos;
+            event.commit();
+        }
+        rollWindow(now);
+    }
+
+    private void startRun(long now) {
+        if (runStart != 0)
+            return;
+
+        runStart = now;
+        runThreadId = Thread.currentThread().getId();
+        runAllocated = threads.getCurrentThreadAllocatedBytes();
+    }
+
+    // Einmal pro Sekunde die Raten neu berechnen
+    private void rollWindow(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS)
+            return;
+
+        // Die Allokationsrate gibt es erst ab dem zweiten Fenster
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        double seconds = elapsed / 1_000_000_000.0;
+        ticksPerSecond = windowTicks / seconds;
+        framesPerSecond = windowFrames / seconds;
+        if (windowAllocated >= 0) {
+            allocatedMegabytesPerSecond = (allocated - windowAllocated) / seconds / (1024 * 1024);
+        }
+        frameP50 = recentFrames.getPercentile(50);
+        frameP99 = recentFrames.getPercentile(99);
+
+        recentFrames.reset();
+        windowStart = now;
+        windowTicks = 0;
+        windowFrames = 0;
+        windowAllocated = allocated;
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    public double getAllocatedMegabytesPerSecond() {
+        return allocatedMegabytesPerSecond;
+    }
+
+    // Zeilen für das Overlay im Spiel
+    public String[] getOverlayLines() {
+        return new String[] {
+                String.format("FPS %.0f  ticks/s %.0f", framesPerSecond, ticksPerSecond),
+                String.format("frame p50 %.2f ms  p99 %.2f ms", frameP50 / 1e6, frameP99 / 1e6),
+                String.format("update p99 %.1f us  collision p99 %.1f us",
+                        phases[UPDATE].getPercentile(99) / 1e3, phases[COLLISION].getPercentile(99) / 1e3),
+                String.format("render p99 %.2f ms  present p99 %.2f ms",
+                        phases[RENDER].getPercentile(99) / 1e6, phases[PRESENT].getPercentile(99) / 1e6),
+                String.format("alloc %.2f MB/s", allocatedMegabytesPerSecond)
+        };
+    }
+
+    // Alle Phasen als CSV, Zeiten in Mikrosekunden. Die Raten gelten für den ganzen Lauf
+    // bis zum Aufruf, nicht nur für die letzte Sekunde.
+    public void writeCsv(PrintWriter out) {
+        double seconds = runStart != 0 ? (System.nanoTime() - runStart) / 1_000_000_000.0 : 0;
+        double ticksRate = seconds > 0 ? totalTicks / seconds : 0;
+        double framesRate = seconds > 0 ? totalFrames / seconds : 0;
+        double allocatedRate = 0;
+        if (seconds > 0 && runAllocated >= 0) {
+            long allocated = threads.getThreadAllocatedBytes(runThreadId);
+            if (allocated >= 0) {
+                allocatedRate = (allocated - runAllocated) / seconds / (1024 * 1024);
+            }
+        }
+
+        out.println("phase,count,mean_us,p50_us,p99_us,max_us");
+        for (int i = 0; i < phases.length; i++) {
+            LatencyHistogram h = phases[i];
+            out.printf(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f%n", PHASE_NAMES[i], h.getCount(),
+                    h.getMean() / 1e3, h.getPercentile(50) / 1e3, h.getPercentile(99) / 1e3, h.getMax() / 1e3);
+        }
+        out.printf(Locale.ROOT, "ticks_per_second,%.1f%n", ticksRate);
+        out.printf(Locale.ROOT, "frames_per_second,%.1f%n", framesRate);
+        out.printf(Locale.ROOT, "alloc_mb_per_second,%.3f%n", allocatedRate);
+        out.flush();
+    }
+
+    @Name("platformer.Tick")
+    @Label("Game Tick")
+    @Category("Platformer")
+    static class TickEvent extends Event {
+        @Label("Tick")
+        long tick;
+
+        @Label("Update")
+        @Timespan
+        long update;
+
+        @Label("Collision")
+        @Timespan
+        long collision;
+    }
+
+    @Name("platformer.Frame")
+    @Label("Rendered Frame")
+    @Category("Platformer")
+    static class FrameEvent extends Event {
+        @Label("Render")
+        @Timespan
+        long render;
+
+        @Label("Present")
+        @Timespan
+        long present;
+    }
+}
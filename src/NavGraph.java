@@ -0,0 +1,523 @@
+import java.util.Arrays;
+
+// Navigationsgraph für Gegner auf dem Tile-Raster, gebaut aus einer Kopie der festen Zellen
+// (siehe NavigationService). Knoten sind die Zellen, auf denen eine Figur mit der
+// Kollisionsbox der Spielfigur stehen kann. Nebeneinander liegende Knoten einer Zeile bilden
+// eine Plattform, auf der frei gelaufen wird. Dazu kommen Sprünge und Stürze zwischen den
+// Plattformen: die Flugbahn wird mit den Konstanten von Player und PhysicsSystem nachgerechnet,
+// mit verschieden langem Halten der Richtung, jede Landestelle ergibt eine Verbindung.
+//
+// Gesucht wird hierarchisch mit A*: Innerhalb einer Plattform geht es nicht Zelle für Zelle,
+// sondern direkt zu den Knoten mit Sprüngen oder Stürzen (Portale) bzw. zum Ziel. Auf langen
+// ebenen Strecken bleibt die Suche dadurch klein. Nicht threadsicher.
+public class NavGraph {
+    // Wie ein Schritt im NavPath erreicht wird
+    public static final int WALK = 0;
+    public static final int JUMP = 1;
+    public static final int FALL = 2;
+
+    // Richtung so viele Referenz-Ticks halten und dann loslassen, ergibt kurze und weite Sprünge
+    private static final int[] HOLD_TICKS = {0, 4, 8, 12, 16, 24, 32, Integer.MAX_VALUE};
+    private static final int MAX_FLIGHT_TICKS = 300;
+
+    // Kopie des Rasters, siehe Grid
+    private final boolean[] solid;
+    private final int columnStart;
+    private final int columns;
+    private final int rows;
+    private final int tileSize;
+    // Referenz-Ticks für eine Spalte zu Fuß, die Luftreibung bremst auch am Boden
+    private final float walkCost;
+
+    // Knoten je Zelle, -1 wenn dort niemand stehen kann
+    private final int[] nodeAt;
+    private int nodeCount = 0;
+    private final int[] nodeColumn;
+    private final int[] nodeRow;
+    private final int[] nodePlatform;
+
+    // Plattform p umfasst die Knoten platformFirst[p]..platformFirst[p + 1] - 1
+    private int platformCount = 0;
+    private final int[] platformFirst;
+    // Knoten mit Sprüngen oder Stürzen: portals[portalStart[p]..portalStart[p + 1] - 1]
+    private final int[] portalStart;
+    private final int[] portals;
+
+    // Sprünge und Stürze nach Startknoten: linkStart[n]..linkStart[n + 1] - 1
+    private final int[] linkStart;
+    private int linkCount = 0;
+    private int[] linkTarget = new int[256];
+    private byte[] linkMove = new byte[256];
+    private byte[] linkDirection = new byte[256];
+    private int[] linkHold = new int[256];
+    private float[] linkTicks = new float[256];
+    // Dauer der letzten Bewegung aus fly(), auch wenn sie nirgends landet
+    private int flightTicks;
+
+    // Zustand der Suche, wird wiederverwendet. Einträge gelten nur mit visited[n] == search.
+    private int search = 0;
+    private final int[] visited;
+    private final int[] closed;
+    private final float[] cost;
+    private final int[] parent;
+    private final int[] parentLink;
+    private int[] heapNode = new int[64];
+    private float[] heapKey = new float[64];
+    private int heapSize = 0;
+
+    public NavGraph(Grid grid) {
+        this.solid = grid.solid;
+        this.columnStart = grid.columnStart;
+        this.columns = grid.columns;
+        this.rows = grid.rows;
+        this.tileSize = grid.tileSize;
+        this.walkCost = tileSize / (Player.WALK_SPEED * PhysicsSystem.AIR_RESISTANCE);
+
+        int cells = columns * rows;
+        nodeAt = new int[cells];
+        Arrays.fill(nodeAt, -1);
+        nodeColumn = new int[cells];
+        nodeRow = new int[cells];
+        nodePlatform = new int[cells];
+        platformFirst = new int[cells + 1];
+
+        // Zeile für Zeile, so liegen die Knoten einer Plattform hintereinander
+        for (int row = 0; row < rows; row++) {
+            for (int column = columnStart; column < columnStart + columns; column++) {
+                if (!isStandable(column, row))
+                    continue;
+
+                int node = nodeCount++;
+                if (column == columnStart || nodeAt[cell(column - 1, row)] < 0) {
+                    platformFirst[platformCount++] = node;
+                }
+                nodeAt[cell(column, row)] = node;
+                nodeColumn[node] = column;
+                nodeRow[node] = row;
+                nodePlatform[node] = platformCount - 1;
+            }
+        }
+        platformFirst[platformCount] = nodeCount;
+
+        linkStart = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            linkStart[node] = linkCount;
+            addLinks(node);
+        }
+        linkStart[nodeCount] = linkCount;
+
+        portalStart = new int[platformCount + 1];
+        portals = new int[nodeCount];
+        int portalCount = 0;
+        for (int platform = 0; platform < platformCount; platform++) {
+            portalStart[platform] = portalCount;
+            for (int node = platformFirst[platform]; node < platformFirst[platform + 1]; node++) {
+                if (linkStart[node + 1] > linkStart[node]) {
+                    portals[portalCount++] = node;
+                }
+            }
+        }
+        portalStart[platformCount] = portalCount;
+
+        visited = new int[nodeCount];
+        closed = new int[nodeCount];
+        cost = new float[nodeCount];
+        parent = new int[nodeCount];
+        parentLink = new int[nodeCount];
+    }
+
+    // Kopie der festen Zellen aller vorhandenen Spalten, für den Konstruktor. Muss auf dem
+    // Thread laufen, der das Level verändert (Simulations-Thread).
+    public static Grid captureGrid(Level level) {
+        int columnStart = level.getColumnStart();
+        int columns = level.getColumnEnd() - columnStart;
+        int rows = level.getGridHeight();
+        boolean[] solid = new boolean[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                solid[row * columns + column] = level.isSolid(columnStart + column, row);
+            }
+        }
+        return new Grid(solid, columnStart, columns, rows, level.tileSize);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getPlatformCount() {
+        return platformCount;
+    }
+
+    public int getLinkCount() {
+        return linkCount;
+    }
+
+    public int getColumn(int node) {
+        return nodeColumn[node];
+    }
+
+    public int getRow(int node) {
+        return nodeRow[node];
+    }
+
+    // Knoten, auf dem eine Figur mit den Füßen bei (footX, footY) steht, bzw. der erste
+    // darunter, wenn sie in der Luft ist. -1 wenn es keinen gibt.
+    public int findNode(float footX, float footY) {
+        int column = (int) Math.floor(footX / tileSize);
+        if (column < columnStart || column >= columnStart + columns)
+            return -1;
+
+        for (int row = Math.max(0, (int) Math.floor((footY - 1) / tileSize)); row < rows; row++) {
+            int node = nodeAt[cell(column, row)];
+            if (node >= 0)
+                return node;
+            if (isSolid(column, row))
+                return -1;
+        }
+        return -1;
+    }
+
+    // Schnellster Weg von Knoten start nach goal, null wenn goal nicht erreichbar ist
+    public NavPath findPath(int start, int goal) {
+        search++;
+        heapSize = 0;
+        visited[start] = search;
+        cost[start] = 0;
+        parent[start] = -1;
+        parentLink[start] = -1;
+        push(start, heuristic(start, goal));
+
+        while (heapSize > 0) {
+            int node = pop();
+            if (closed[node] == search)
+                continue;
+            closed[node] = search;
+            if (node == goal)
+                return buildPath(goal);
+
+            int platform = nodePlatform[node];
+            if (platform == nodePlatform[goal]) {
+                relax(node, goal, -1, goal);
+            }
+            for (int i = portalStart[platform]; i < portalStart[platform + 1]; i++) {
+                if (portals[i] != node) {
+                    relax(node, portals[i], -1, goal);
+                }
+            }
+            for (int link = linkStart[node]; link < linkStart[node + 1]; link++) {
+                relax(node, linkTarget[link], link, goal);
+            }
+        }
+        return null;
+    }
+
+    // link -1: auf derselben Plattform laufen
+    private void relax(int from, int node, int link, int goal) {
+        if (closed[node] == search)
+            return;
+
+        float step = link < 0 ? Math.abs(nodeColumn[node] - nodeColumn[from]) * walkCost : linkTicks[link];
+        float newCost = cost[from] + step;
+        if (visited[node] == search && newCost >= cost[node])
+            return;
+
+        visited[node] = search;
+        cost[node] = newCost;
+        parent[node] = from;
+        parentLink[node] = link;
+        push(node, newCost + heuristic(node, goal));
+    }
+
+    // Waagrecht ist niemand schneller als zu Fuß; eine Spalte Abstand bleibt für die
+    // Landestelle, die nicht genau in der Zellmitte liegt
+    private float heuristic(int node, int goal) {
+        return Math.max(0, Math.abs(nodeColumn[node] - nodeColumn[goal]) - 1) * walkCost;
+    }
+
+    private NavPath buildPath(int goal) {
+        int length = 0;
+        for (int node = goal; node >= 0; node = parent[node]) {
+            length++;
+        }
+
+        int[] nodes = new int[length];
+        for (int node = goal, i = length - 1; node >= 0; node = parent[node], i--) {
+            nodes[i] = node;
+        }
+
+        int[] pathColumns = new int[length];
+        int[] pathRows = new int[length];
+        byte[] moves = new byte[length];
+        byte[] directions = new byte[length];
+        int[] holds = new int[length];
+        int steps = 0;
+        for (int i = 0; i < length; i++) {
+            int node = nodes[i];
+            int link = parentLink[node];
+            // Zwei Laufstrecken hintereinander zu einer zusammenfassen
+            if (link < 0 && steps > 1 && moves[steps - 1] == WALK) {
+                steps--;
+            }
+
+            pathColumns[steps] = nodeColumn[node];
+            pathRows[steps] = nodeRow[node];
+            if (link < 0) {
+                moves[steps] = WALK;
+                directions[steps] = (byte) (steps > 0 ? Integer.signum(nodeColumn[node] - pathColumns[steps - 1]) : 0);
+            } else {
+                moves[steps] = linkMove[link];
+                directions[steps] = linkDirection[link];
+                holds[steps] = linkHold[link];
+            }
+            steps++;
+        }
+
+        return new NavPath(Arrays.copyOf(pathColumns, steps), Arrays.copyOf(pathRows, steps),
+                Arrays.copyOf(moves, steps), Arrays.copyOf(directions, steps), Arrays.copyOf(holds, steps),
+                cost[goal]);
+    }
+
+    // Sprünge in beide Richtungen, Stürze nur von den Enden der Plattform. Längeres Halten
+    // als die Flugdauer ändert nichts mehr, dann bricht die Reihe ab.
+    private void addLinks(int node) {
+        int platform = nodePlatform[node];
+        boolean leftEnd = node == platformFirst[platform];
+        boolean rightEnd = node == platformFirst[platform + 1] - 1;
+
+        for (int direction = -1; direction <= 1; direction += 2) {
+            for (int hold : HOLD_TICKS) {
+                addLink(node, JUMP, direction, hold);
+                if (flightTicks <= hold)
+                    break;
+            }
+            if (direction < 0 ? !leftEnd : !rightEnd)
+                continue;
+            for (int hold : HOLD_TICKS) {
+                addLink(node, FALL, direction, hold);
+                if (flightTicks <= hold)
+                    break;
+            }
+        }
+    }
+
+    private void addLink(int node, int move, int direction, int hold) {
+        int target = fly(node, move == JUMP, direction, hold);
+        if (target < 0 || nodePlatform[target] == nodePlatform[node])
+            return;
+
+        // Vom selben Knoten zum selben Ziel nur die schnellste Variante
+        for (int link = linkStart[node]; link < linkCount; link++) {
+            if (linkTarget[link] == target) {
+                if (flightTicks < linkTicks[link]) {
+                    setLink(link, target, move, direction, hold);
+                }
+                return;
+            }
+        }
+
+        if (linkCount == linkTarget.length) {
+            int capacity = linkCount * 2;
+            linkTarget = Arrays.copyOf(linkTarget, capacity);
+            linkMove = Arrays.copyOf(linkMove, capacity);
+            linkDirection = Arrays.copyOf(linkDirection, capacity);
+            linkHold = Arrays.copyOf(linkHold, capacity);
+            linkTicks = Arrays.copyOf(linkTicks, capacity);
+        }
+        setLink(linkCount++, target, move, direction, hold);
+    }
+
+    private void setLink(int link, int target, int move, int direction, int hold) {
+        linkTarget[link] = target;
+        linkMove[link] = (byte) move;
+        linkDirection[link] = (byte) direction;
+        linkHold[link] = hold;
+        linkTicks[link] = flightTicks;
+    }
+
+    // Rechnet die Bewegung ab der Mitte von Knoten start nach, wie Player.applyMovement und
+    // PhysicsSystem mit dt = 1: Richtung hold Ticks lang halten, dann loslassen. Liefert den
+    // Knoten der Landung (flightTicks = Dauer) oder -1 (Grube, Kante ohne Knoten, zu lang).
+    // Ein Sturz läuft erst über die eigene Plattform bis zur Kante.
+    private int fly(int start, boolean jump, int direction, int hold) {
+        float width = Player.colliderWidth;
+        float height = Player.colliderHeight;
+        float x = nodeColumn[start] * tileSize + (tileSize - width) / 2;
+        float y = (nodeRow[start] + 1) * tileSize - height;
+        float velY = jump ? -Player.JUMP_POWER : 0;
+
+        for (int tick = 0; tick < MAX_FLIGHT_TICKS; tick++) {
+            float velX = tick < hold ? direction * Player.WALK_SPEED : 0;
+            velX *= PhysicsSystem.AIR_RESISTANCE;
+            velY = (velY + PhysicsSystem.GRAVITY) * PhysicsSystem.AIR_RESISTANCE;
+
+            x += velX;
+            if (velX != 0 && blocked(x, y)) {
+                x = velX > 0 ? lastCell(x + width) * tileSize - width : (firstCell(x) + 1) * tileSize;
+            }
+
+            y += velY;
+            boolean landed = false;
+            if (y < 0) {
+                // Oberkante des Levels, siehe PhysicsSystem.clampToLevel
+                y = 0;
+                velY = 0;
+            }
+            if (blocked(x, y)) {
+                if (velY > 0) {
+                    y = lastCell(y + height) * tileSize - height;
+                    landed = true;
+                } else {
+                    y = (firstCell(y) + 1) * tileSize;
+                }
+                velY = 0;
+            }
+            flightTicks = tick + 1;
+            if (y + height > rows * tileSize)
+                return -1;
+            if (!landed)
+                continue;
+
+            int node = nodeUnder(x, y);
+            if (!jump && (node < 0 || nodePlatform[node] == nodePlatform[start])) {
+                // Läuft noch auf der eigenen Plattform oder steht an deren Kante
+                if (tick >= hold)
+                    return -1;
+                continue;
+            }
+            return node;
+        }
+        return -1;
+    }
+
+    // Knoten unter einer gelandeten Box: unter der Mitte, sonst unter einer ihrer Kanten
+    private int nodeUnder(float x, float y) {
+        int row = Math.round((y + Player.colliderHeight) / tileSize) - 1;
+        if (row < 0 || row >= rows)
+            return -1;
+
+        int node = nodeAt((int) Math.floor((x + Player.colliderWidth / 2f) / tileSize), row);
+        if (node < 0) {
+            node = nodeAt(firstCell(x), row);
+        }
+        if (node < 0) {
+            node = nodeAt(lastCell(x + Player.colliderWidth), row);
+        }
+        return node;
+    }
+
+    private int nodeAt(int column, int row) {
+        if (column < columnStart || column >= columnStart + columns)
+            return -1;
+        return nodeAt[cell(column, row)];
+    }
+
+    // Ob die Kollisionsbox an (x, y) eine feste Zelle überlappt
+    private boolean blocked(float x, float y) {
+        int minRow = Math.max(0, firstCell(y));
+        int maxRow = Math.min(rows - 1, lastCell(y + Player.colliderHeight));
+        int maxColumn = lastCell(x + Player.colliderWidth);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = firstCell(x); column <= maxColumn; column++) {
+                if (isSolid(column, row))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // Zelle, in der coord liegt, bzw. letzte Zelle vor einer Kante bei coord
+    private int firstCell(float coord) {
+        return (int) Math.floor(coord / tileSize);
+    }
+
+    private int lastCell(float coord) {
+        return (int) Math.ceil(coord / tileSize) - 1;
+    }
+
+    // Stehen geht mit festem Tile darunter und Platz für die ganze Kollisionsbox darüber
+    private boolean isStandable(int column, int row) {
+        if (row + 1 >= rows || !isSolid(column, row + 1))
+            return false;
+
+        float top = (row + 1) * tileSize - Player.colliderHeight;
+        if (top < 0)
+            return false;
+        for (int r = firstCell(top); r <= row; r++) {
+            if (isSolid(column, r))
+                return false;
+        }
+        return true;
+    }
+
+    // Außerhalb der Spalten wie eine Wand, siehe PhysicsSystem.clampToLevel
+    private boolean isSolid(int column, int row) {
+        if (column < columnStart || column >= columnStart + columns)
+            return true;
+        return solid[cell(column, row)];
+    }
+
+    private int cell(int column, int row) {
+        return row * columns + column - columnStart;
+    }
+
+    private void push(int node, float key) {
+        if (heapSize == heapNode.length) {
+            heapNode = Arrays.copyOf(heapNode, heapSize * 2);
+            heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+        }
+
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) / 2;
+            if (heapKey[up] <= key)
+                break;
+            heapNode[i] = heapNode[up];
+            heapKey[i] = heapKey[up];
+            i = up;
+        }
+        heapNode[i] = node;
+        heapKey[i] = key;
+    }
+
+    private int pop() {
+        int top = heapNode[0];
+        int node = heapNode[--heapSize];
+        float key = heapKey[heapSize];
+
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) {
+                child++;
+            }
+            if (heapKey[child] >= key)
+                break;
+            heapNode[i] = heapNode[child];
+            heapKey[i] = heapKey[child];
+            i = child;
+        }
+        heapNode[i] = node;
+        heapKey[i] = key;
+        return top;
+    }
+
+    // Feste Zellen der Spalten columnStart..columnStart+columns-1, Zeile für Zeile
+    static final class Grid {
+        final boolean[] solid;
+        final int columnStart;
+        final int columns;
+        final int rows;
+        final int tileSize;
+
+        Grid(boolean[] solid, int columnStart, int columns, int rows, int tileSize) {
+            this.solid = solid;
+            this.columnStart = columnStart;
+            this.columns = columns;
+            this.rows = rows;
+            this.tileSize = tileSize;
+        }
+    }
+}
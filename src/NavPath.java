@@ -0,0 +1,55 @@
+// Ergebnis einer Wegsuche im NavGraph: Zellen, auf denen die Figur nacheinander stehen soll,
+// und wie sie jeweils dorthin kommt. Schritt 0 ist der Startknoten.
+//   WALK: zur Mitte der Zelle laufen
+//   JUMP: in der Mitte der vorherigen Zelle springen, getDirection() für getHoldTicks()
+//         Referenz-Ticks halten, danach loslassen
+//   FALL: wie JUMP, nur ohne Sprung über die Kante laufen
+// Unveränderlich, kann also zwischen Threads und Gegnern geteilt werden.
+public class NavPath {
+    private final int[] columns;
+    private final int[] rows;
+    private final byte[] moves;
+    private final byte[] directions;
+    private final int[] holdTicks;
+    private final float estimatedTicks;
+
+    NavPath(int[] columns, int[] rows, byte[] moves, byte[] directions, int[] holdTicks, float estimatedTicks) {
+        this.columns = columns;
+        this.rows = rows;
+        this.moves = moves;
+        this.directions = directions;
+        this.holdTicks = holdTicks;
+        this.estimatedTicks = estimatedTicks;
+    }
+
+    public int getLength() {
+        return columns.length;
+    }
+
+    public int getColumn(int step) {
+        return columns[step];
+    }
+
+    public int getRow(int step) {
+        return rows[step];
+    }
+
+    // NavGraph.WALK, JUMP oder FALL
+    public int getMove(int step) {
+        return moves[step];
+    }
+
+    // -1 links, 1 rechts, 0 senkrecht
+    public int getDirection(int step) {
+        return directions[step];
+    }
+
+    public int getHoldTicks(int step) {
+        return holdTicks[step];
+    }
+
+    // Geschätzte Dauer in Referenz-Ticks
+    public float getEstimatedTicks() {
+        return estimatedTicks;
+    }
+}
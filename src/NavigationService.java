@@ -0,0 +1,89 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Wegsuche für Gegner abseits des Simulations-Threads. update() läuft jeden Tick auf dem
+// Simulations-Thread und kopiert die festen Zellen, sobald sich das Raster ändert (neues
+// Level, neuer Chunk im endlosen Level). Der Aufbau des NavGraph und alle Suchen laufen auf
+// einem eigenen Thread, dort liegt auch der LRU-Cache der letzten Wege; er wird mit jedem
+// neuen Graphen geleert. Der Thread arbeitet die Aufträge der Reihe nach ab, jede Suche sieht
+// also den Graphen zu dem Raster, das beim Aufruf von findPath() galt.
+public class NavigationService {
+    public static final int CACHE_SIZE = 256;
+
+    private static final ExecutorService NAVIGATION_THREAD = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "navigation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Nur auf dem Simulations-Thread
+    private Level level = null;
+    private int tileVersion = 0;
+
+    // Nur auf dem Navigations-Thread
+    private NavGraph graph = null;
+    // Zugriffsreihenfolge = LRU, Schlüssel aus Start- und Zielknoten
+    private final LinkedHashMap<Long, NavPath> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, NavPath> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private volatile long cacheHits = 0;
+    private volatile long cacheMisses = 0;
+
+    // Jeden Tick nach Level.update() aufrufen
+    public void update(Level level) {
+        if (level == this.level && level.getTileVersion() == tileVersion)
+            return;
+
+        this.level = level;
+        tileVersion = level.getTileVersion();
+
+        NavGraph.Grid grid = NavGraph.captureGrid(level);
+        NAVIGATION_THREAD.execute(() -> {
+            graph = new NavGraph(grid);
+            cache.clear();
+        });
+    }
+
+    // Weg von einer Figur mit den Füßen bei (fromX, fromY) zu (toX, toY), in Pixeln. Das
+    // Ergebnis kommt auf dem Navigations-Thread; Gegner fragen es z.B. mit getNow(null) im
+    // nächsten Tick ab. null, wenn das Ziel nicht erreichbar ist.
+    public CompletableFuture<NavPath> findPath(float fromX, float fromY, float toX, float toY) {
+        return CompletableFuture.supplyAsync(() -> search(fromX, fromY, toX, toY), NAVIGATION_THREAD);
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    private NavPath search(float fromX, float fromY, float toX, float toY) {
+        if (graph == null)
+            return null;
+
+        int start = graph.findNode(fromX, fromY);
+        int goal = graph.findNode(toX, toY);
+        if (start < 0 || goal < 0)
+            return null;
+
+        Long key = (long) start * graph.getNodeCount() + goal;
+        if (cache.containsKey(key)) {
+            cacheHits++;
+            return cache.get(key);
+        }
+
+        cacheMisses++;
+        NavPath path = graph.findPath(start, goal);
+        // Auch "nicht erreichbar" merken
+        cache.put(key, path);
+        return path;
+    }
+}
@@ -0,0 +1,46 @@
+// Nachrichten zwischen GameServer und GameClient über TCP. Jede Nachricht ist ein Frame:
+//   int Länge (Typ + Nutzdaten), byte Typ, Nutzdaten
+//
+// WELCOME  (Server): int eigenes Entity, int Tickrate, UTF Levelpfad
+// INPUT    (Client): byte InputSnapshot.getBits(), nur wenn sich etwas ändert
+// SNAPSHOT (Server): int Tick, int Dauer des Ticks in µs, short Anzahl, Anzahl x Delta
+//   Delta: short Entity, byte Felder, dann je gesetztem Feld ein float (x, y, velX, velY)
+//   und für FIELD_ON_GROUND ein byte (1 = steht auf einem Tile).
+//   REMOVED: das Entity gibt es nicht mehr. Wird eine Id zwischen zwei Snapshots frei und
+//   neu vergeben, folgt im selben Snapshot ein Delta mit allen Feldern für das neue Entity.
+//
+// Ein Delta enthält nur Felder, die sich seit dem vorherigen Snapshot an denselben
+// Client geändert haben. TCP liefert vollständig und in Reihenfolge, Bestätigungen
+// vom Client braucht es dafür nicht.
+public final class NetProtocol {
+    public static final int DEFAULT_PORT = 7777;
+
+    // Nachrichtentypen
+    public static final byte WELCOME = 1;
+    public static final byte INPUT = 2;
+    public static final byte SNAPSHOT = 3;
+
+    // Felder im Delta
+    public static final int FIELD_X = 1;
+    public static final int FIELD_Y = 2;
+    public static final int FIELD_VEL_X = 4;
+    public static final int FIELD_VEL_Y = 8;
+    public static final int REMOVED = 16;
+    public static final int FIELD_ON_GROUND = 32;
+    public static final int ALL_FIELDS = FIELD_X | FIELD_Y | FIELD_VEL_X | FIELD_VEL_Y | FIELD_ON_GROUND;
+
+    // Entity-Ids gehen als short über die Leitung, höhere Ids nimmt der Server nicht an
+    public static final int MAX_ENTITIES = 0x10000;
+
+    // Größter Frame, längere gelten als Protokollfehler
+    public static final int MAX_FRAME = 64 * 1024;
+    public static final int FRAME_HEADER = 5;
+    public static final int SNAPSHOT_HEADER = FRAME_HEADER + 10;
+    // Größtes Delta: Id, Felder, vier floats, Bodenkontakt
+    public static final int MAX_DELTA = 3 + 4 * 4 + 1;
+    // Delta nur mit REMOVED: Id, Felder
+    public static final int REMOVED_DELTA = 3;
+
+    private NetProtocol() {
+    }
+}
@@ -0,0 +1,138 @@
+import java.nio.ByteBuffer;
+
+// Kurzlebige Partikel (Staub beim Springen und Landen, Spritzer auf Wasser). Alle Werte
+// liegen in vorab angelegten Arrays, Eintrag i gehört zu Partikel i; ein toter Partikel
+// wird durch den letzten ersetzt (swap-remove), die belegten Einträge sind immer 0..count-1.
+// Ist MAX_PARTICLES erreicht, werden neue Partikel verworfen. Nichts davon allokiert.
+public class ParticleSystem {
+    public static final int MAX_PARTICLES = 2048;
+
+    // Farben, werden im GameRenderer auf Color-Objekte abgebildet
+    public static final int DUST = 0;
+    public static final int DUST_DARK = 1;
+    public static final int WATER = 2;
+    public static final int WATER_LIGHT = 3;
+    public static final int COLOR_COUNT = 4;
+
+    // Pro Referenz-Tick, siehe PhysicsSystem
+    private static final float GRAVITY = 0.25f;
+    private static final float DRAG = 0.96f;
+
+    float[] x = new float[MAX_PARTICLES];
+    float[] y = new float[MAX_PARTICLES];
+    float[] prevX = new float[MAX_PARTICLES];
+    float[] prevY = new float[MAX_PARTICLES];
+    float[] velX = new float[MAX_PARTICLES];
+    float[] velY = new float[MAX_PARTICLES];
+    // Restliche und gesamte Lebensdauer in Referenz-Ticks
+    float[] life = new float[MAX_PARTICLES];
+    float[] maxLife = new float[MAX_PARTICLES];
+    byte[] color = new byte[MAX_PARTICLES];
+    int count = 0;
+
+    private long droppedCount = 0;
+    // Eigener Zufallsgenerator (xorshift), damit gleiche Eingabe gleiche Partikel ergibt
+    private int randomState = 0x2545F491;
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    // Für Simulation.writeSnapshot() zählt nur der Zufallsgenerator, die Partikel selbst
+    // sind reine Optik und werden beim Zurücksetzen verworfen
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(randomState);
+    }
+
+    void readFrom(ByteBuffer buffer) {
+        randomState = buffer.getInt();
+        count = 0;
+    }
+
+    public void spawn(float startX, float startY, float startVelX, float startVelY, float lifetime, int colorId) {
+        if (count == MAX_PARTICLES) {
+            droppedCount++;
+            return;
+        }
+
+        int i = count++;
+        x[i] = startX;
+        y[i] = startY;
+        prevX[i] = startX;
+        prevY[i] = startY;
+        velX[i] = startVelX;
+        velY[i] = startVelY;
+        life[i] = lifetime;
+        maxLife[i] = lifetime;
+        color[i] = (byte) colorId;
+    }
+
+    // Staubwolke an den Füßen, nach links und rechts
+    public void emitDust(float footX, float footY, int amount) {
+        for (int i = 0; i < amount; i++) {
+            spawn(footX + random(-8, 8), footY - random(0, 3),
+                    random(-1.5f, 1.5f), random(-1.2f, -0.2f),
+                    random(20, 40), (i & 1) == 0 ? DUST : DUST_DARK);
+        }
+    }
+
+    // Wasserspritzer, steiler und schneller als Staub
+    public void emitSplash(float footX, float footY, int amount) {
+        for (int i = 0; i < amount; i++) {
+            spawn(footX + random(-10, 10), footY - random(0, 4),
+                    random(-1.2f, 1.2f), random(-4.5f, -1.5f),
+                    random(30, 50), (i & 1) == 0 ? WATER : WATER_LIGHT);
+        }
+    }
+
+    // Alle Partikel einen Tick weiter, tote werden entfernt
+    public void update(float dt) {
+        float drag = (float) StrictMath.pow(DRAG, dt);
+        int i = 0;
+        while (i < count) {
+            life[i] -= dt;
+            if (life[i] <= 0) {
+                removeAt(i);
+                continue;
+            }
+
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            velY[i] += GRAVITY * dt;
+            velX[i] *= drag;
+            velY[i] *= drag;
+            x[i] += velX[i] * dt;
+            y[i] += velY[i] * dt;
+            i++;
+        }
+    }
+
+    // Letzten Partikel an die Stelle i verschieben
+    private void removeAt(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        prevX[i] = prevX[last];
+        prevY[i] = prevY[last];
+        velX[i] = velX[last];
+        velY[i] = velY[last];
+        life[i] = life[last];
+        maxLife[i] = maxLife[last];
+        color[i] = color[last];
+    }
+
+    private float random(float min, float max) {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 17;
+        randomState ^= randomState << 5;
+        return min + (randomState >>> 8) * (1f / (1 << 24)) * (max - min);
+    }
+}
@@ -0,0 +1,294 @@
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Bewegt alle Entities einen Tick weiter: Schwerkraft, Luftreibung, Levelgrenzen
+// und Kollision mit festen Tiles. Entities beeinflussen sich gegenseitig nicht,
+// ab PARALLEL_THRESHOLD Entities wird der Bereich daher auf den ForkJoinPool verteilt.
+//
+// Die Kollision ist kontinuierlich (swept AABB): die Bewegung eines Ticks wird bis
+// zum ersten Treffer mit einem Tile ausgeführt und dann entlang der Wand fortgesetzt.
+// Schnelle Entities oder lange Ticks können dünne Tiles so nicht mehr durchdringen.
+//
+// Alle Konstanten und Geschwindigkeiten beziehen sich auf einen Referenz-Tick von 10 ms.
+// dt ist die Tick-Länge in Referenz-Ticks (1 bei 100 Hz, 3.33 bei 30 Hz).
+public class PhysicsSystem {
+    public static final float GRAVITY = 0.5f;
+    public static final float AIR_RESISTANCE = 0.98f;
+
+    // Höchstens so viele Treffer werden pro Tick und Entity nacheinander aufgelöst
+    private static final int MAX_SWEEP_ITERATIONS = 3;
+
+    public static final int PARALLEL_THRESHOLD = 1024;
+    // Kleinste Anzahl Entities pro Teilaufgabe
+    private static final int BATCH_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public PhysicsSystem() {
+        this(ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+
+    public PhysicsSystem(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public void step(EntityWorld world, Level level, float dt) {
+        // Luftreibung über dt Referenz-Ticks. StrictMath, damit aufgezeichnete
+        // Sitzungen auf jeder JVM gleich ablaufen (siehe InputLog)
+        float airFactor = (float) StrictMath.pow(AIR_RESISTANCE, dt);
+
+        int count = world.getCount();
+        if (count >= parallelThreshold && pool.getParallelism() > 1) {
+            pool.invoke(new StepTask(world, level, dt, airFactor, 0, count));
+        } else {
+            stepRange(world, level, dt, airFactor, 0, count);
+        }
+    }
+
+    private static void stepRange(EntityWorld world, Level level, float dt, float airFactor, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int flags = world.flags[i];
+            if ((flags & EntityWorld.ALIVE) == 0)
+                continue;
+
+            world.prevX[i] = world.x[i];
+            world.prevY[i] = world.y[i];
+
+            if ((flags & EntityWorld.GRAVITY) != 0) {
+                // Schwerkraft anwenden
+                world.velY[i] += GRAVITY * dt;
+
+                // Luftreibung anwenden
+                world.velX[i] *= airFactor;
+                world.velY[i] *= airFactor;
+            }
+
+            if ((flags & EntityWorld.COLLIDES) != 0) {
+                world.flags[i] &= ~EntityWorld.ON_GROUND;
+                sweep(world, level, i, dt);
+                clampToLevel(world, level, i);
+                // Rest-Überlappungen (z.B. beim Erzeugen im Tile) wie bisher auflösen
+                collide(world, level, i);
+            } else {
+                world.x[i] += world.velX[i] * dt;
+                world.y[i] += world.velY[i] * dt;
+                clampToLevel(world, level, i);
+            }
+        }
+    }
+
+    // Bewegt das Entity um velocity * dt und hält am ersten getroffenen Tile an.
+    // Die Geschwindigkeit senkrecht zur getroffenen Fläche wird 0, der Rest der
+    // Bewegung läuft an der Fläche entlang weiter.
+    private static void sweep(EntityWorld world, Level level, int i, float dt) {
+        float width = world.colliderWidth[i];
+        float height = world.colliderHeight[i];
+        float x = world.x[i];
+        float y = world.y[i];
+        float moveX = world.velX[i] * dt;
+        float moveY = world.velY[i] * dt;
+        int tileSize = level.tileSize;
+
+        for (int iteration = 0; iteration < MAX_SWEEP_ITERATIONS && (moveX != 0 || moveY != 0); iteration++) {
+            // Alle Zellen, die die Box auf ihrem Weg berührt
+            int minCol = level.firstCellTouching(Math.min(x, x + moveX));
+            int maxCol = level.lastCellTouching(Math.max(x, x + moveX) + width);
+            int minRow = level.firstCellTouching(Math.min(y, y + moveY));
+            int maxRow = level.lastCellTouching(Math.max(y, y + moveY) + height);
+
+            float firstHit = 1f;
+            boolean hitX = false;
+
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    if (!level.isSolid(col, row))
+                        continue;
+
+                    float tileMinX = col * tileSize;
+                    float tileMinY = row * tileSize;
+
+                    // Zeitpunkt (0..1), zu dem die Box das Tile auf jeder Achse erreicht bzw. verlässt
+                    float entryX, exitX, entryY, exitY;
+                    if (moveX == 0) {
+                        if (x + width <= tileMinX || x >= tileMinX + tileSize)
+                            continue;
+                        entryX = Float.NEGATIVE_INFINITY;
+                        exitX = Float.POSITIVE_INFINITY;
+                    } else if (moveX > 0) {
+                        entryX = (tileMinX - (x + width)) / moveX;
+                        exitX = (tileMinX + tileSize - x) / moveX;
+                    } else {
+                        entryX = (tileMinX + tileSize - x) / moveX;
+                        exitX = (tileMinX - (x + width)) / moveX;
+                    }
+
+                    if (moveY == 0) {
+                        if (y + height <= tileMinY || y >= tileMinY + tileSize)
+                            continue;
+                        entryY = Float.NEGATIVE_INFINITY;
+                        exitY = Float.POSITIVE_INFINITY;
+                    } else if (moveY > 0) {
+                        entryY = (tileMinY - (y + height)) / moveY;
+                        exitY = (tileMinY + tileSize - y) / moveY;
+                    } else {
+                        entryY = (tileMinY + tileSize - y) / moveY;
+                        exitY = (tileMinY - (y + height)) / moveY;
+                    }
+
+                    float entry = Math.max(entryX, entryY);
+                    float exit = Math.min(exitX, exitY);
+
+                    // Kein Treffer in diesem Tick, oder die Box steckt schon drin (macht collide())
+                    if (entry >= exit || entry < 0 || entry >= firstHit)
+                        continue;
+
+                    firstHit = entry;
+                    hitX = entryX > entryY;
+                }
+            }
+
+            // Bis zum Treffer (oder ganz) bewegen
+            x += moveX * firstHit;
+            y += moveY * firstHit;
+            if (firstHit >= 1f)
+                break;
+
+            float remaining = 1f - firstHit;
+            if (hitX) {
+                world.velX[i] = 0;
+                moveX = 0;
+                moveY *= remaining;
+            } else {
+                if (moveY > 0) {
+                    world.flags[i] |= EntityWorld.ON_GROUND;
+                }
+                world.velY[i] = 0;
+                moveY = 0;
+                moveX *= remaining;
+            }
+        }
+
+        world.x[i] = x;
+        world.y[i] = y;
+    }
+
+    // Sicherstellen, dass das Entity das Level nicht verlässt
+    private static void clampToLevel(EntityWorld world, Level level, int i) {
+        float x = world.x[i];
+        float y = world.y[i];
+        float velX = world.velX[i];
+        float velY = world.velY[i];
+
+        // Sicherstellen, dass das Entity das Level nicht verlässt
+        if (x < level.getMinX()) {
+            x = level.getMinX();
+            velX = 0;
+        }
+        if (x > level.lvlSize.x - world.width[i]) {
+            x = level.lvlSize.x - world.width[i];
+            velX = 0;
+        }
+        if (y < 0) {
+            y = 0;
+            velY = 0;
+        }
+        if (y > level.lvlSize.y - world.height[i]) {
+            y = level.lvlSize.y - world.height[i];
+            velY = 0;
+        }
+
+        world.x[i] = x;
+        world.y[i] = y;
+        world.velX[i] = velX;
+        world.velY[i] = velY;
+    }
+
+    // Überlappungen und Berührungen mit festen Tiles auflösen, entlang der Achse mit
+    // der kleineren Überlappung
+    private static void collide(EntityWorld world, Level level, int i) {
+        float width = world.colliderWidth[i];
+        float height = world.colliderHeight[i];
+        float x = world.x[i];
+        float y = world.y[i];
+        int flags = world.flags[i];
+
+        // Nur die Rasterzellen rund um das Entity prüfen
+        int minCol = level.firstCellTouching(x);
+        int maxCol = level.lastCellTouching(x + width);
+        int minRow = level.firstCellTouching(y);
+        int maxRow = level.lastCellTouching(y + height);
+        int tileSize = level.tileSize;
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (!level.isSolid(col, row))
+                    continue;
+
+                float tileMinX = col * tileSize;
+                float tileMinY = row * tileSize;
+                float tileMaxX = tileMinX + tileSize;
+                float tileMaxY = tileMinY + tileSize;
+                if (x > tileMaxX || x + width < tileMinX || y > tileMaxY || y + height < tileMinY)
+                    continue;
+
+                float overlapX = (x < tileMinX) ? x + width - tileMinX : tileMaxX - x;
+                float overlapY = (y < tileMinY) ? y + height - tileMinY : tileMaxY - y;
+
+                if (overlapX < overlapY) {
+                    // Horizontale Kollision: links oder rechts vom Tile hinausschieben
+                    x = (x < tileMinX) ? tileMinX - width : tileMaxX;
+                    world.velX[i] = 0;
+                } else if (y < tileMinY) {
+                    // Über dem Tile: nach oben schieben, steht jetzt
+                    y = tileMinY - height;
+                    world.velY[i] = 0;
+                    flags |= EntityWorld.ON_GROUND;
+                } else {
+                    // Unter dem Tile: nach unten schieben
+                    y = tileMaxY;
+                    world.velY[i] = 0;
+                }
+            }
+        }
+
+        world.x[i] = x;
+        world.y[i] = y;
+        world.flags[i] = flags;
+    }
+
+    private static class StepTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final EntityWorld world;
+        private final Level level;
+        private final float dt;
+        private final float airFactor;
+        private final int from;
+        private final int to;
+
+        StepTask(EntityWorld world, Level level, float dt, float airFactor, int from, int to) {
+            this.world = world;
+            this.level = level;
+            this.dt = dt;
+            this.airFactor = airFactor;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                stepRange(world, level, dt, airFactor, from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new StepTask(world, level, dt, airFactor, from, middle),
+                    new StepTask(world, level, dt, airFactor, middle, to));
+        }
+    }
+}
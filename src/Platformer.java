@@ -1,16 +1,15 @@
-import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Toolkit;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferStrategy;
-import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
 import java.io.Serial;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.nio.ByteBuffer;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -21,116 +20,239 @@ public class Platformer extends JFrame {
     @Serial
     private static final long serialVersionUID = 5736902251450559962L;
 
-    private Level l = null;
-    private Player player = null;
+    private Simulation simulation = null;
+    private GameRenderer renderer = null;
+    // Verbindung zum GameServer, null im Einzelspieler
+    private GameClient client = null;
 
-    private Timer gameTimer;
+    // Maximale Bildrate, per -Dplatformer.fps änderbar (Tickrate siehe Simulation)
+    private static final int FRAME_RATE = Integer.getInteger("platformer.fps", 100);
+    // Höchstens so viele Ticks werden pro Durchlauf nachgeholt
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    // So viele Sekunden lassen sich mit gehaltener Rücktaste zurückspulen, per -Dplatformer.rewind
+    private static final int REWIND_SECONDS = Integer.getInteger("platformer.rewind", 10);
+
+    // Snapshots der letzten Ticks und ein Checkpoint (F5 speichern, F9 laden), nur im Einzelspieler
+    private RewindBuffer rewind = null;
+    private ByteBuffer checkpoint = null;
+    // Vom AWT-Thread gesetzt, in der Spielschleife ausgeführt
+    private volatile boolean rewinding = false;
+    private volatile boolean saveCheckpoint = false;
+    private volatile boolean loadCheckpoint = false;
+
+    private GameLoop gameLoop;
     private BufferStrategy bufferStrategy;
 
     public Platformer() {
         //exit program when window is closed
         this.addWindowListener(new WindowAdapter() {
             public void windowClosing(WindowEvent e) {
-                if (gameTimer != null) {
-                    gameTimer.cancel();
-                }
+                stopGame();
+                SoundEngine.getInstance().shutdown();
 
                 System.exit(0);
             }
         });
 
-        JFileChooser fc = new JFileChooser();
-        fc.setCurrentDirectory(new File("./"));
-        fc.setDialogTitle("Select input image");
-        FileFilter filter = new FileNameExtensionFilter("Level image (.bmp)", "bmp");
-        fc.setFileFilter(filter);
-        int result = fc.showOpenDialog(this);
+        // Bilder schon laden, während die Level-Auswahl offen ist
+        AssetManager.getInstance().preload(Level.TILE_ASSETS);
+        AssetManager.getInstance().preload(Player.WALK_ASSETS);
+
+        // Mit -Dplatformer.connect=host:port als Client eines GameServer spielen
+        String connect = System.getProperty("platformer.connect");
+        if (connect != null) {
+            addKeyListener(new AL(this));
+            startNetworkGame(connect);
+            return;
+        }
+
+        // Mit -Dplatformer.endless=<seed> ein endloses, generiertes Level statt der Auswahl
+        String endless = System.getProperty("platformer.endless");
         File selectedFile = new File("");
-        addKeyListener(new AL(this));
+        if (endless == null) {
+            JFileChooser fc = new JFileChooser();
+            fc.setCurrentDirectory(new File("./"));
+            fc.setDialogTitle("Select input image");
+            FileFilter filter = new FileNameExtensionFilter("Level (.bmp, .lvl)", "bmp", "lvl");
+            fc.setFileFilter(filter);
+            int result = fc.showOpenDialog(this);
 
-        if (result == JFileChooser.APPROVE_OPTION) {
-            selectedFile = fc.getSelectedFile();
-            System.out.println("Selected file: " + selectedFile.getAbsolutePath());
-        } else {
-            dispose();
-            System.exit(0);
+            if (result == JFileChooser.APPROVE_OPTION) {
+                selectedFile = fc.getSelectedFile();
+                System.out.println("Selected file: " + selectedFile.getAbsolutePath());
+            } else {
+                dispose();
+                System.exit(0);
+            }
         }
+        addKeyListener(new AL(this));
 
         try {
-            l = new Level(selectedFile.getAbsolutePath());
-            player = new Player(100, 100, l);
+            // Das gewählte Level und die folgenden aus demselben Ordner
+            LevelSequence levels = endless != null
+                    ? LevelSequence.parse(LevelGenerator.PREFIX + endless, false)
+                    : LevelSequence.fromDirectory(selectedFile, false);
+            simulation = new Simulation(levels, Simulation.TICK_RATE);
+            // Eingabe für HeadlessRunner --replay aufzeichnen
+            if (System.getProperty(HeadlessRunner.RECORD_PROPERTY) != null) {
+                simulation.setRecorder(new InputLog(levels.toString(), Simulation.TICK_RATE));
+            }
+            startGame();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
 
-            this.setBounds(0, 0, 1000, 5 * 70);
-            this.setVisible(true);
+    }
 
-            createBufferStrategy(2);
-            bufferStrategy = this.getBufferStrategy();
+    private void startNetworkGame(String address) {
+        try {
+            int colon = address.lastIndexOf(':');
+            String host = colon >= 0 ? address.substring(0, colon) : address;
+            int port = colon >= 0 ? Integer.parseInt(address.substring(colon + 1)) : NetProtocol.DEFAULT_PORT;
 
-            // Game Timer mit TimerTask - alle 10ms
-            gameTimer = new Timer();
-            gameTimer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    updateGameStateAndRepaint();
-                }
-            }, 0, 10); // 0ms Verzögerung, dann alle 10ms
+            client = GameClient.connect(host, port);
+            if (!client.awaitWelcome(5000)) {
+                System.out.println("No answer from server " + address);
+                System.exit(1);
+            }
+            System.out.println("Connected to " + address + " as entity " + client.getEntity()
+                    + ", level " + client.getLevelPath());
 
+            simulation = new Simulation(new Level(client.getLevelPath()), Simulation.TICK_RATE);
+            startGame();
         } catch (Exception e) {
             e.printStackTrace();
         }
+    }
+
+    private void startGame() {
+        // Java2D oder Software-Framebuffer, per -Dplatformer.renderer=software
+        renderer = new GameRenderer(simulation);
+        renderer.setMetrics(simulation.getMetrics());
+        System.out.println("Renderer: " + (renderer.isSoftware() ? "software framebuffer" : "Java2D"));
+        if (client == null) {
+            startLocalPlay();
+        } else {
+            renderer.setEntitySprite(GameClient.REMOTE_PLAYER_SPRITE, simulation.getPlayer().getImage());
+        }
+        AssetManager.getInstance().printLoadReport();
+
+        // Gezeichnet wird aktiv aus der Spielschleife, nicht über repaint()
+        this.setIgnoreRepaint(true);
+        this.setBounds(0, 0, GameRenderer.VIEWPORT_WIDTH, GameRenderer.VIEWPORT_HEIGHT);
+        this.setVisible(true);
+
+        createBufferStrategy(2);
+        bufferStrategy = this.getBufferStrategy();
+
+        // Spielschleife mit festem Zeitschritt auf eigenem Thread
+        gameLoop = new GameLoop(new GameLoop.Game() {
+            @Override
+            public void tick() {
+                updateGameState();
+            }
 
+            @Override
+            public void render(float alpha) {
+                renderFrame(alpha);
+            }
+        }, Simulation.TICK_RATE, FRAME_RATE, MAX_CATCH_UP_TICKS);
+        gameLoop.start();
     }
 
-    private void updateGameStateAndRepaint() {
-        if (l != null) {
-            l.update();
+    // Spielschleife anhalten und eine laufende Aufnahme speichern
+    private void stopGame() {
+        if (gameLoop != null) {
+            gameLoop.stop();
+            gameLoop = null;
         }
-        if (player != null) {
-            player.update();
-            checkCollision();
+        if (simulation != null && simulation.getRecorder() != null) {
+            try {
+                HeadlessRunner.saveRecording(simulation, System.getProperty(HeadlessRunner.RECORD_PROPERTY));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            simulation.setRecorder(null);
         }
-
-        repaint();
     }
 
-    private void checkCollision() {
-        if (player != null) {
-            player.checkCollision();
+    private void updateGameState() {
+        if (simulation == null)
+            return;
+
+        if (client == null) {
+            updateLocal();
+            return;
+        }
+        try {
+            simulation.tickRemote(client);
+        } catch (IOException e) {
+            System.out.println("Connection lost: " + e.getMessage());
+            client = null;
+            // Lokal weiterspielen, dafür braucht es Rückspulpuffer und Checkpoint
+            startLocalPlay();
         }
     }
 
-    public void paint(Graphics g) {
-        if (bufferStrategy != null) {
-            Graphics2D g2 = null;
-            try {
-                g2 = (Graphics2D) bufferStrategy.getDrawGraphics();
-                draw(g2);
-            } finally {
-                if (g2 != null) {
-                    g2.dispose();
-                }
+    private void startLocalPlay() {
+        rewind = new RewindBuffer(simulation, REWIND_SECONDS);
+        checkpoint = simulation.saveSnapshot(null);
+    }
+
+    // Ein Tick im Einzelspieler, oder einen Tick zurück bzw. zum Checkpoint
+    private void updateLocal() {
+        if (saveCheckpoint) {
+            saveCheckpoint = false;
+            checkpoint = simulation.saveSnapshot(checkpoint);
+        }
+        if (loadCheckpoint) {
+            loadCheckpoint = false;
+            if (simulation.restoreSnapshot(checkpoint)) {
+                rewind.clear();
             }
-            bufferStrategy.show();
-        } else {
-            Graphics2D g2 = (Graphics2D) g;
-            draw(g2);
         }
+
+        if (rewinding) {
+            // Am Ende des Puffers bleibt das Spiel stehen, bis die Taste losgelassen wird
+            rewind.stepBack(simulation);
+            // Eingaben beim Zurückspulen verwerfen, aber gehaltene Tasten mitführen
+            simulation.getInputQueue().drain();
+            return;
+        }
+        simulation.tick();
+        rewind.record(simulation);
     }
 
-    private void draw(Graphics2D g2d) {
-        BufferedImage level = (BufferedImage) l.getResultingImage();
-        if (l.offsetX > level.getWidth() - 1000)
-            l.offsetX = level.getWidth() - 1000;
-        BufferedImage bi = level.getSubimage((int) l.offsetX, 0, 1000, level.getHeight());
-        g2d.drawImage(bi, 0, 0, this);
+    private void renderFrame(float alpha) {
+        long renderNanos = 0;
+        long presentNanos = 0;
 
-        // Player zeichnen
-        if (player != null) {
-            g2d.drawImage(player.getImage(),
-                    (int) (player.pos.x - l.offsetX),
-                    (int) player.pos.y,
-                    this);
-        }
+        // Inhalt kann verloren gehen (z.B. Fenster verdeckt), dann neu zeichnen
+        do {
+            do {
+                long start = System.nanoTime();
+                Graphics2D g2 = null;
+                try {
+                    g2 = (Graphics2D) bufferStrategy.getDrawGraphics();
+                    renderer.draw(g2, alpha);
+                } finally {
+                    if (g2 != null) {
+                        g2.dispose();
+                    }
+                }
+                renderNanos += System.nanoTime() - start;
+            } while (bufferStrategy.contentsRestored());
+
+            long start = System.nanoTime();
+            bufferStrategy.show();
+            presentNanos += System.nanoTime() - start;
+        } while (bufferStrategy.contentsLost());
+
+        long start = System.nanoTime();
+        Toolkit.getDefaultToolkit().sync();
+        presentNanos += System.nanoTime() - start;
+
+        simulation.getMetrics().frameFinished(renderNanos, presentNanos);
     }
 
     public class AL extends KeyAdapter {
@@ -145,47 +267,58 @@ public class Platformer extends JFrame {
         public void keyPressed(KeyEvent event) {
             int keyCode = event.getKeyCode();
 
+            // Messwerte ein-/ausblenden
+            if (keyCode == KeyEvent.VK_F3 && renderer != null) {
+                renderer.toggleOverlay();
+            }
+
+            // Checkpoint speichern / laden, Zurückspulen solange die Rücktaste gehalten wird
+            if (keyCode == KeyEvent.VK_F5) {
+                saveCheckpoint = true;
+            }
+            if (keyCode == KeyEvent.VK_F9) {
+                loadCheckpoint = true;
+            }
+            if (keyCode == KeyEvent.VK_BACK_SPACE) {
+                rewinding = true;
+            }
+
             if (keyCode == KeyEvent.VK_ESCAPE) {
-                if (gameTimer != null) {
-                    gameTimer.cancel();
-                }
+                stopGame();
                 dispose();
             }
 
-            // Player-Steuerung - neue Zustände
-            if (player != null) {
-                // Links
-                if (keyCode == KeyEvent.VK_A || keyCode == KeyEvent.VK_LEFT) {
-                    player.setWalkingLeft(true);
-                }
-                // Rechts
-                if (keyCode == KeyEvent.VK_D || keyCode == KeyEvent.VK_RIGHT) {
-                    player.setWalkingRight(true);
-                }
-                // Springen
-                if (keyCode == KeyEvent.VK_W || keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_SPACE) {
-                    player.setJumping(true);
-                }
-            }
+            // Spielsteuerung - als Ereignis an die Simulation, die es im nächsten Tick abholt
+            sendKey(keyCode, true);
         }
 
         @Override
         public void keyReleased(KeyEvent event) {
-            int keyCode = event.getKeyCode();
+            if (event.getKeyCode() == KeyEvent.VK_BACK_SPACE) {
+                rewinding = false;
+            }
+            sendKey(event.getKeyCode(), false);
+        }
 
-            if (player != null) {
-                // Links
-                if (keyCode == KeyEvent.VK_A || keyCode == KeyEvent.VK_LEFT) {
-                    player.setWalkingLeft(false);
-                }
-                // Rechts
-                if (keyCode == KeyEvent.VK_D || keyCode == KeyEvent.VK_RIGHT) {
-                    player.setWalkingRight(false);
-                }
-                // Springen
-                if (keyCode == KeyEvent.VK_W || keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_SPACE) {
-                    player.setJumping(false);
-                }
+        private void sendKey(int keyCode, boolean pressed) {
+            if (simulation == null)
+                return;
+
+            int key = 0;
+            // Links
+            if (keyCode == KeyEvent.VK_A || keyCode == KeyEvent.VK_LEFT) {
+                key = InputSnapshot.LEFT;
+            }
+            // Rechts
+            if (keyCode == KeyEvent.VK_D || keyCode == KeyEvent.VK_RIGHT) {
+                key = InputSnapshot.RIGHT;
+            }
+            // Springen
+            if (keyCode == KeyEvent.VK_W || keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_SPACE) {
+                key = InputSnapshot.JUMP;
+            }
+            if (key != 0) {
+                simulation.getInputQueue().offer(key, pressed);
             }
         }
     }
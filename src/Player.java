@@ -1,117 +1,88 @@
 import java.awt.Color;
-import java.awt.Point;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import javax.imageio.ImageIO;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 
+// Die Spielfigur: ein Entity in der EntityWorld, dazu Steuerung, Animation und Kamera.
+// Bewegung und Kollision übernimmt das PhysicsSystem wie für alle anderen Entities.
 public class Player {
-    // Position in X- und Y-Richtung
-    public Point.Float pos;
+    // Laufanimation, Schlüssel für den AssetManager
+    public static final String[] WALK_ASSETS = new String[11];
 
-    // BoundingBox für Kollisionserkennung
-    private BoundingBox boundingBox;
+    static {
+        for (int i = 0; i < WALK_ASSETS.length; i++) {
+            WALK_ASSETS[i] = String.format("Player/p2_walk/PNG/p2_walk%02d.png", i + 1);
+        }
+    }
+
+    // Position, Geschwindigkeit und Kollisionsbox liegen in der EntityWorld
+    private final EntityWorld world;
+    private final int entity;
 
     // Animation
     private List<BufferedImage> walkFrames;
-    private BufferedImage currentImage;
+    // Sprite-Tabelle: [animationFrame * 2 + (facingRight ? 1 : 0)], einmal beim Laden gespiegelt
+    private BufferedImage[] sprites;
     private int animationFrame = 0;
-    private int animationCounter = 0;
-    private final int animationSpeed = 6; // Frames zwischen Updates
-
-    // Physik
-    private float velocityX = 0f;
-    private float velocityY = 0f;
-    private final float gravity = 0.5f;
-    private final float airResistance = 0.98f;
-    private final float walkSpeed = 3f;
-    private final float jumpPower = 12f;
-
-    // Neue Zustände
+    private float animationCounter = 0;
+    private final int animationSpeed = 6; // Referenz-Ticks (10 ms) zwischen Updates
+
+    // Physik (Schwerkraft und Luftreibung siehe PhysicsSystem)
+    public static final float WALK_SPEED = 3f;
+    public static final float JUMP_POWER = 12f;
+
+    // Tastenzustand des aktuellen Ticks, kommt aus dem InputSnapshot
     private boolean jumping = false;
     private boolean walkingLeft = false;
     private boolean walkingRight = false;
     private boolean facingRight = true;
-    private boolean onGround = false;
+    // Ob die Figur in diesem Tick abgesprungen ist
+    private boolean jumped = false;
 
     // Level-Referenz
     private Level level;
 
+    private final SoundEngine sounds;
+
     // Spielfigur-Größe
-    private final int width = 32;
-    private final int height = 42;
+    private static final int width = 32;
+    private static final int height = 42;
 
-    public Player(float startX, float startY, Level level) {
-        this.pos = new Point.Float(startX, startY);
-        this.level = level;
+    // Kollisionsbox: 10 px breiter und 50 px höher als die Figur, damit das
+    // größere Sprite nicht in die Tiles ragt (früher als Verschiebung der
+    // Tile-Boxen im BoundingBox-Konstruktor versteckt)
+    static final int colliderWidth = width + 10;
+    static final int colliderHeight = height + 50;
 
-        // BoundingBox initialisieren
-        this.boundingBox = new BoundingBox(startX, startY, startX + width, startY + height);
+    // Bytes von writeTo()
+    static final int SNAPSHOT_BYTES = 1 + 4 + 4;
+
+    public Player(float startX, float startY, Level level, EntityWorld world) {
+        this.level = level;
+        this.world = world;
+        this.entity = createEntity(world, startX, startY);
 
         loadWalkAnimation();
-        if (!walkFrames.isEmpty()) {
-            currentImage = walkFrames.get(0);
-        }
 
         // Musik starten
-        playSound("assets/Sound/soundtrack.wav");
-    }
-
-    public void playSound(String path) {
-        File lol = new File(path);
-        try {
-            Clip clip = AudioSystem.getClip();
-            clip.open(AudioSystem.getAudioInputStream(lol));
-            clip.start();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        sounds = SoundEngine.getInstance();
+        sounds.play(SoundEngine.SOUNDTRACK);
     }
 
     private void loadWalkAnimation() {
         walkFrames = new ArrayList<>();
 
-        // Lade alle p2_walk*.png Dateien
-        for (int i = 1; i <= 11; i++) {
-            try {
-                String filename = String.format("p2_walk%02d.png", i);
-
-                // Versuche verschiedene Pfade
-                String[] paths = {
-                        "./assets/Player/p2_walk/PNG/",
-                        "/Users/philipp/Downloads/Step2/assets/Player/p2_walk/PNG/",
-                        "./",
-                        "./assets/",
-                        "./Player/"
-                };
-
-                BufferedImage frame = null;
-
-                for (String path : paths) {
-                    try {
-                        File file = new File(path + filename);
-                        if (file.exists()) {
-                            frame = ImageIO.read(file);
-                            System.out.println("Loaded: " + path + filename);
-                            break;
-                        }
-                    } catch (IOException e) {
-                        // Nächsten Pfad versuchen
-                    }
-                }
-
-                if (frame != null) {
-                    walkFrames.add(frame);
-                } else {
-                    System.out.println("Could not find: " + filename);
-                }
-
-            } catch (Exception e) {
-                System.err.println("Error loading walk frame " + i + ": " + e.getMessage());
+        // Alle p2_walk*.png Dateien parallel anfordern, dann der Reihe nach einsammeln
+        AssetManager assets = AssetManager.getInstance();
+        assets.preload(WALK_ASSETS);
+
+        for (String key : WALK_ASSETS) {
+            BufferedImage frame = assets.getImage(key);
+            if (frame != null) {
+                addWalkFrame(frame);
+            } else {
+                System.out.println("Could not find: " + key);
             }
         }
 
@@ -120,8 +91,17 @@ public class Player {
             System.out.println("No walk images found, creating fallback graphics");
             createFallbackFrames();
         } else {
-            System.out.println("Loaded " + walkFrames.size() + " walk animation frames");
+            System.out.println("Loaded " + walkFrames.size() / 2 + " walk animation frames");
         }
+
+        sprites = walkFrames.toArray(new BufferedImage[0]);
+    }
+
+    // Legt ein Frame nach links und nach rechts schauend in der Sprite-Tabelle ab
+    private void addWalkFrame(BufferedImage frame) {
+        AssetManager assets = AssetManager.getInstance();
+        walkFrames.add(assets.toCompatibleImage(flipHorizontally(frame)));
+        walkFrames.add(assets.toCompatibleImage(frame));
     }
 
     private void createFallbackFrames() {
@@ -150,183 +130,177 @@ public class Player {
             g.fillOval(19, 6, 2, 2);
 
             g.dispose();
-            walkFrames.add(frame);
+            addWalkFrame(frame);
         }
     }
 
-    public void update() {
-        // Bewegung entsprechend der Zustände
+    // Eingabe in Geschwindigkeit umsetzen, bewegt wird im PhysicsSystem.
+    // dt: Länge des Ticks in Referenz-Ticks, siehe PhysicsSystem
+    public void update(float dt, InputSnapshot input) {
+        // Auch kurz angetippte Tasten zählen für diesen Tick
+        walkingLeft = input.isDown(InputSnapshot.LEFT);
+        walkingRight = input.isDown(InputSnapshot.RIGHT);
+        jumping = input.isDown(InputSnapshot.JUMP);
+
         if (walkingLeft) {
-            velocityX = -walkSpeed;
             facingRight = false;
         } else if (walkingRight) {
-            velocityX = walkSpeed;
             facingRight = true;
-        } else {
-            velocityX = 0;
         }
 
-        // Sprung nur wenn am Boden
-        if (jumping && onGround) {
-            velocityY = -jumpPower;
-            onGround = false;
-            playSound("assets/Sound/jump1.wav"); // Jump-Sound abspielen
+        jumped = applyMovement(world, entity, input);
+        if (jumped) {
+            sounds.play(SoundEngine.JUMP); // Jump-Sound abspielen
         }
 
-        // Schwerkraft anwenden
-        velocityY += gravity;
-
-        // Luftreibung anwenden
-        velocityX *= airResistance;
-        velocityY *= airResistance;
-
-        // Position aktualisieren
-        pos.x += velocityX;
-        pos.y += velocityY;
-
-        // Sicherstellen, dass Spielfigur das Level nicht verlässt
-        BufferedImage levelImg = (BufferedImage) level.getResultingImage();
-        if (pos.x < 0) {
-            pos.x = 0;
-            velocityX = 0;
-        }
-        if (pos.x > levelImg.getWidth() - width) {
-            pos.x = levelImg.getWidth() - width;
-            velocityX = 0;
-        }
-        if (pos.y < 0) {
-            pos.y = 0;
-            velocityY = 0;
-        }
-        if (pos.y > levelImg.getHeight() - height) {
-            pos.y = levelImg.getHeight() - height;
-            velocityY = 0;
-            onGround = true;
-        }
-
-        // BoundingBox aktualisieren
-        updateBoundingBox();
-
         // Animation aktualisieren
-        updateAnimation();
+        updateAnimation(dt);
+    }
 
-        // Kamera folgt dem Spieler
-        updateCamera();
+    // Entity mit Größe und Kollisionsbox der Spielfigur, auch für Mitspieler auf dem GameServer
+    static int createEntity(EntityWorld world, float startX, float startY) {
+        return world.create(startX, startY, width, height, colliderWidth, colliderHeight,
+                EntityWorld.GRAVITY | EntityWorld.COLLIDES, EntityWorld.NO_SPRITE);
     }
 
-    private void updateBoundingBox() {
-        boundingBox.updatePosition(pos.x, pos.y, width, height);
+    // Laufen und Springen für ein Spieler-Entity. Liefert true, wenn es in diesem Tick abspringt.
+    static boolean applyMovement(EntityWorld world, int entity, InputSnapshot input) {
+        // Bewegung entsprechend der Zustände
+        if (input.isDown(InputSnapshot.LEFT)) {
+            world.velX[entity] = -WALK_SPEED;
+        } else if (input.isDown(InputSnapshot.RIGHT)) {
+            world.velX[entity] = WALK_SPEED;
+        } else {
+            world.velX[entity] = 0;
+        }
+
+        // Sprung nur wenn am Boden
+        if (input.isDown(InputSnapshot.JUMP) && world.hasFlag(entity, EntityWorld.ON_GROUND)) {
+            world.velY[entity] = -JUMP_POWER;
+            world.flags[entity] &= ~EntityWorld.ON_GROUND;
+            return true;
+        }
+        return false;
     }
 
-    private void updateAnimation() {
+    private void updateAnimation(float dt) {
         // Animation nur wenn sich bewegt
         if (walkingLeft || walkingRight) {
             // Laufanimation
-            animationCounter++;
-            if (animationCounter >= animationSpeed) {
-                animationFrame = (animationFrame + 1) % walkFrames.size();
-                animationCounter = 0;
+            animationCounter += dt;
+            while (animationCounter >= animationSpeed) {
+                animationFrame = (animationFrame + 1) % (sprites.length / 2);
+                animationCounter -= animationSpeed;
             }
         } else {
             // Stillstehen - erstes Frame
             animationFrame = 0;
             animationCounter = 0;
         }
-
-        currentImage = walkFrames.get(animationFrame);
     }
 
-    private void updateCamera() {
+    // Nach dem Physik-Schritt aufrufen
+    public void updateCamera(float dt) {
         // Kamera folgt dem Spieler - Spieler bleibt in der Mitte des Bildschirms
         float screenWidth = 1000f; // Fensterbreite aus Platformer
-        float targetCameraX = pos.x - (screenWidth / 2f);
+        float targetCameraX = getX() - (screenWidth / 2f);
 
-        // Sanfte Kamera-Bewegung
-        float cameraSpeed = 0.15f;
+        // Sanfte Kamera-Bewegung, 15 % pro Referenz-Tick
+        float cameraSpeed = 1f - (float) Math.pow(1f - 0.15f, dt);
         level.offsetX += (targetCameraX - level.offsetX) * cameraSpeed;
 
         // Grenzen der Kamera beachten
-        if (level.offsetX < 0) {
-            level.offsetX = 0;
+        if (level.offsetX < level.getMinX()) {
+            level.offsetX = level.getMinX();
         }
 
-        BufferedImage levelImg = (BufferedImage) level.getResultingImage();
-        if (level.offsetX > levelImg.getWidth() - screenWidth) {
-            level.offsetX = levelImg.getWidth() - screenWidth;
+        if (level.offsetX > level.lvlSize.x - screenWidth) {
+            level.offsetX = level.lvlSize.x - screenWidth;
         }
     }
 
-    public void checkCollision() {
-        ArrayList<Tile> tiles = level.getTiles();
-        onGround = false;
-
-        for (Tile tile : tiles) {
-            if (this.boundingBox.intersect(tile.getBoundingBox())) {
-                // Kollision erkannt
-                Vec2 overlap = this.boundingBox.overlapSize(tile.getBoundingBox());
-                BoundingBox tileBB = tile.getBoundingBox();
-
-                // Bestimme Kollisionsrichtung
-                if (overlap.x < overlap.y) {
-                    // Horizontale Kollision
-                    if (pos.x < tileBB.minX) {
-                        // Player links von Tile, schiebe nach links
-                        pos.x = tileBB.minX - width;
-                        velocityX = 0;
-                    } else {
-                        // Player rechts von Tile, schiebe nach rechts
-                        pos.x = tileBB.maxX;
-                        velocityX = 0;
-                    }
-                } else {
-                    // Vertikale Kollision
-                    if (pos.y < tileBB.minY) {
-                        // Player über Tile muss nach oben
-                        pos.y = tileBB.minY - height;
-                        velocityY = 0;
-                        onGround = true;
-                    } else {
-                        // Player unter Tile muss nach unten
-                        pos.y = tileBB.maxY;
-                        velocityY = 0;
-                    }
-                }
-
-                // BoundingBox aktualisieren
-                updateBoundingBox();
-            }
-        }
+    // Neues Level: an den Start setzen, ohne Interpolation vom alten Ort
+    public void enterLevel(Level level, float startX, float startY) {
+        this.level = level;
+        world.x[entity] = startX;
+        world.y[entity] = startY;
+        world.prevX[entity] = startX;
+        world.prevY[entity] = startY;
+        world.velX[entity] = 0;
+        world.velY[entity] = 0;
+        world.flags[entity] &= ~EntityWorld.ON_GROUND;
+    }
+
+    // Animation und Tastenzustand für Simulation.writeSnapshot(), die Position steckt in der EntityWorld
+    void writeTo(ByteBuffer buffer) {
+        int bits = (walkingLeft ? 1 : 0) | (walkingRight ? 2 : 0) | (jumping ? 4 : 0)
+                | (facingRight ? 8 : 0) | (jumped ? 16 : 0);
+        buffer.put((byte) bits);
+        buffer.putInt(animationFrame);
+        buffer.putFloat(animationCounter);
+    }
+
+    void readFrom(ByteBuffer buffer) {
+        int bits = buffer.get();
+        walkingLeft = (bits & 1) != 0;
+        walkingRight = (bits & 2) != 0;
+        jumping = (bits & 4) != 0;
+        facingRight = (bits & 8) != 0;
+        jumped = (bits & 16) != 0;
+        animationFrame = buffer.getInt();
+        animationCounter = buffer.getFloat();
+    }
+
+    public boolean hasJumped() {
+        return jumped;
+    }
+
+    // Mitte der Unterkante der Kollisionsbox
+    public float getFootX() {
+        return getX() + colliderWidth / 2f;
+    }
+
+    public float getFootY() {
+        return getY() + colliderHeight;
+    }
+
+    public int getEntity() {
+        return entity;
+    }
+
+    public float getX() {
+        return world.getX(entity);
+    }
+
+    public float getY() {
+        return world.getY(entity);
+    }
+
+    public boolean isOnGround() {
+        return world.hasFlag(entity, EntityWorld.ON_GROUND);
+    }
+
+    public float getRenderX(float alpha) {
+        return world.getRenderX(entity, alpha);
+    }
+
+    public float getRenderY(float alpha) {
+        return world.getRenderY(entity, alpha);
     }
 
     public BufferedImage getImage() {
-        if (facingRight || currentImage == null) {
-            return currentImage;
-        } else {
-            // Horizontal spiegeln für Links-Bewegung
-            return flipHorizontally(currentImage);
-        }
+        // Gespiegelte Frames liegen schon vor, hier wird nur nachgeschlagen
+        return sprites[animationFrame * 2 + (facingRight ? 1 : 0)];
     }
 
     private BufferedImage flipHorizontally(BufferedImage original) {
         int w = original.getWidth();
         int h = original.getHeight();
-        BufferedImage flipped = new BufferedImage(w, h, original.getType());
+        BufferedImage flipped = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
         java.awt.Graphics2D g = flipped.createGraphics();
         g.drawImage(original, w, 0, 0, h, 0, 0, w, h, null);
         g.dispose();
-        return original;
-    }
-
-    // Zustand-Steuerung
-    public void setJumping(boolean jumping) {
-        this.jumping = jumping;
-    }
-
-    public void setWalkingLeft(boolean walkingLeft) {
-        this.walkingLeft = walkingLeft;
+        return flipped;
     }
 
-    public void setWalkingRight(boolean walkingRight) {
-        this.walkingRight = walkingRight;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+import java.nio.ByteBuffer;
+
+// Ringpuffer mit einem Snapshot der Simulation pro Tick, zum Zurückspulen der letzten
+// Sekunden. Die Puffer werden beim Anlegen reserviert, record() schreibt nur hinein und
+// allokiert nichts. Nur wenn ein Slot zu klein wird (deutlich mehr Entities als beim
+// Anlegen), legt Simulation.saveSnapshot() für ihn einmalig einen größeren an.
+public class RewindBuffer {
+    private final ByteBuffer[] slots;
+    // Slot des jüngsten Snapshots und Zahl der belegten Slots
+    private int newest = -1;
+    private int size = 0;
+
+    public RewindBuffer(Simulation simulation, float seconds) {
+        int ticks = Math.max(2, Math.round(seconds * Simulation.REFERENCE_TICK_RATE / simulation.getDt()));
+        slots = new ByteBuffer[ticks];
+        for (int i = 0; i < ticks; i++) {
+            slots[i] = simulation.saveSnapshot(null);
+        }
+    }
+
+    // Nach jedem Tick aufrufen; der älteste Snapshot wird überschrieben
+    public void record(Simulation simulation) {
+        newest = (newest + 1) % slots.length;
+        slots[newest] = simulation.saveSnapshot(slots[newest]);
+        size = Math.min(size + 1, slots.length);
+    }
+
+    // Einen Tick zurück: verwirft den jüngsten Snapshot und setzt die Simulation auf den
+    // davor. Liefert false, wenn nichts mehr da ist oder der Snapshot nicht passt (z.B.
+    // nach einem Levelwechsel), dann wird der Puffer geleert.
+    public boolean stepBack(Simulation simulation) {
+        if (size < 2)
+            return false;
+
+        newest = (newest - 1 + slots.length) % slots.length;
+        size--;
+        if (!simulation.restoreSnapshot(slots[newest])) {
+            clear();
+            return false;
+        }
+        return true;
+    }
+
+    public void clear() {
+        newest = -1;
+        size = 0;
+    }
+
+    // So viele Ticks lässt sich höchstens zurückspulen
+    public int getRecordedTicks() {
+        return Math.max(0, size - 1);
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Der komplette Spielzustand ohne Fenster: Level, alle Entities samt Spielfigur
+// und ein Tick. Wird vom Platformer und vom HeadlessRunner gleichermaßen benutzt.
+public class Simulation {
+    // Simulationsrate, per -Dplatformer.tickRate änderbar. Dank der kontinuierlichen
+    // Kollision gehen auch 30-60 Hz, die Spielgeschwindigkeit bleibt gleich.
+    public static final int TICK_RATE = Integer.getInteger("platformer.tickRate", 100);
+    // Auf diese Rate sind alle Geschwindigkeiten und Konstanten abgestimmt
+    public static final int REFERENCE_TICK_RATE = 100;
+
+    // Startposition der Spielfigur in jedem Level
+    public static final float START_X = 100;
+    public static final float START_Y = 100;
+
+    // Snapshot-Format, siehe writeSnapshot()
+    private static final int SNAPSHOT_MAGIC = 0x504C534E; // "PLSN"
+    private static final int SNAPSHOT_HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4 + Player.SNAPSHOT_BYTES + 4;
+
+    private Level level;
+    // Folgende Level, falls gesetzt
+    private final LevelSequence sequence;
+    private final EntityWorld world = new EntityWorld();
+    private final PhysicsSystem physics = new PhysicsSystem();
+    private final Player player;
+    // Staub und Spritzer, nur Optik, fließt nicht in getStateHash() ein
+    private final ParticleSystem particles = new ParticleSystem();
+    // Alle so viele Referenz-Ticks ein Spritzer, solange die Figur über Wasser läuft
+    private static final float WADE_INTERVAL = 8;
+    private float wadeTimer = 0;
+    private long tickCount = 0;
+    // Zahl der Levelwechsel, ein Snapshot gilt nur im selben Level
+    private int levelSwitches = 0;
+    private final Metrics metrics = new Metrics();
+    // Länge eines Ticks in Referenz-Ticks
+    private final float dt;
+    // Tastenereignisse vom AWT-Thread, werden am Anfang jedes Ticks abgeholt
+    private final InputQueue inputQueue = new InputQueue(256);
+    // Zeichnet die Eingabe jedes Ticks auf, falls gesetzt
+    private InputLog recorder = null;
+    // Aufnahme, die gerade abgespielt wird, gibt die Levelwechsel vor
+    private InputLog replay = null;
+    // Wegsuche für Gegner, wird erst beim ersten getNavigation() angelegt
+    private NavigationService navigation = null;
+
+    public Simulation(Level level) {
+        this(level, TICK_RATE);
+    }
+
+    public Simulation(Level level, int tickRate) {
+        this(level, null, tickRate);
+    }
+
+    public Simulation(LevelSequence sequence, int tickRate) {
+        this(sequence.loadFirst(), sequence, tickRate);
+    }
+
+    private Simulation(Level level, LevelSequence sequence, int tickRate) {
+        this.level = level;
+        this.sequence = sequence;
+        this.dt = (float) REFERENCE_TICK_RATE / tickRate;
+        this.player = new Player(START_X, START_Y, level, world);
+    }
+
+    // Ein Tick mit der Eingabe aus der InputQueue
+    public void tick() {
+        tick(inputQueue.drain());
+    }
+
+    // Ein Tick mit vorgegebener Eingabe (Skript, Aufnahme)
+    public void tick(InputSnapshot input) {
+        long start = System.nanoTime();
+        if (recorder != null) {
+            recorder.record(tickCount, input.getBits());
+        }
+        // Levelwechsel nur hier zwischen zwei Ticks. Beim Abspielen genau in den
+        // aufgezeichneten Ticks, sonst hinge der Wechsel von der Ladezeit ab.
+        if (sequence != null) {
+            Level next;
+            if (replay != null && replay.hasLevelSwitches()) {
+                sequence.preload(level, player.getX());
+                next = replay.isLevelSwitch(tickCount) ? sequence.switchNow(level) : null;
+            } else {
+                next = sequence.update(level, player.getX());
+            }
+            if (next != null) {
+                if (recorder != null) {
+                    recorder.recordLevelSwitch(tickCount);
+                }
+                switchLevel(next);
+            }
+        }
+        level.update();
+        if (navigation != null) {
+            navigation.update(level);
+        }
+        boolean wasOnGround = player.isOnGround();
+        float startFootY = player.getFootY();
+        player.update(dt, input);
+        long updated = System.nanoTime();
+        // Bewegung und Kollision aller Entities
+        physics.step(world, level, dt);
+        particles.update(dt);
+        emitPlayerParticles(wasOnGround, startFootY);
+        player.updateCamera(dt);
+        long end = System.nanoTime();
+
+        tickCount++;
+        metrics.tickFinished(tickCount, updated - start, end - updated, end);
+    }
+
+    // Ein Tick als Client eines GameServer: Eingabe an den Server, Positionen vom Server.
+    // Lokal wird nichts simuliert, nur Animation und Kamera laufen weiter.
+    public void tickRemote(GameClient client) throws IOException {
+        long start = System.nanoTime();
+        InputSnapshot input = inputQueue.drain();
+        client.sendInput(input);
+        client.poll();
+
+        level.update();
+        player.update(dt, input);
+        client.interpolate(System.nanoTime());
+        client.applyTo(this);
+        player.updateCamera(dt);
+        long end = System.nanoTime();
+
+        tickCount++;
+        metrics.tickFinished(tickCount, end - start, 0, end);
+    }
+
+    // Staub bzw. Spritzer beim Abspringen und Landen, kleine Spritzer beim Laufen über Wasser
+    private void emitPlayerParticles(boolean wasOnGround, float startFootY) {
+        float footX = player.getFootX();
+        float footY = player.getFootY();
+        boolean onGround = player.isOnGround();
+        // Beim Absprung zählt das Tile, von dem die Figur abspringt
+        float groundY = player.hasJumped() ? startFootY : footY;
+        boolean water = level.getTileIndexAt(footX, groundY + 1) == Level.TILE_WATER;
+
+        if (player.hasJumped() || (onGround && !wasOnGround)) {
+            if (water) {
+                particles.emitSplash(footX, groundY, 16);
+            } else {
+                particles.emitDust(footX, groundY, 10);
+            }
+            wadeTimer = 0;
+        } else if (onGround && water && world.velX[player.getEntity()] != 0) {
+            wadeTimer += dt;
+            if (wadeTimer >= WADE_INTERVAL) {
+                wadeTimer -= WADE_INTERVAL;
+                particles.emitSplash(footX, footY, 3);
+            }
+        }
+    }
+
+    private void switchLevel(Level next) {
+        // Alle übrigen Entities gehören zum alten Level
+        for (int id = 0; id < world.getCount(); id++) {
+            if (id != player.getEntity()) {
+                world.remove(id);
+            }
+        }
+        particles.clear();
+        levelSwitches++;
+        level = next;
+        player.enterLevel(next, START_X, START_Y);
+    }
+
+    // Bytes, die writeSnapshot() für den aktuellen Zustand braucht
+    public int getSnapshotSize() {
+        return SNAPSHOT_HEADER_BYTES + world.getSnapshotSize();
+    }
+
+    // Schreibt den kompletten Spielzustand ab der aktuellen Position flach nach buffer.
+    // Allokiert nichts und kann daher jeden Tick laufen. Aufbau (Byte-Reihenfolge des Puffers):
+    //   int    magic          "PLSN"
+    //   int    levelSwitches
+    //   long   tickCount
+    //   float  offsetX, prevOffsetX (Kamera)
+    //   float  wadeTimer
+    //   Player (Tasten und Animation), int Zufallszustand der Partikel
+    //   EntityWorld (alle Entities samt Spielfigur)
+    // Die Partikel selbst, das geladene Level und der Stand der Levelfolge gehören nicht
+    // dazu; ein Snapshot lässt sich nur im selben Level wieder einspielen.
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.putInt(levelSwitches);
+        buffer.putLong(tickCount);
+        buffer.putFloat(level.offsetX);
+        buffer.putFloat(level.prevOffsetX);
+        buffer.putFloat(wadeTimer);
+        player.writeTo(buffer);
+        particles.writeTo(buffer);
+        world.writeTo(buffer);
+    }
+
+    // Spielt einen Snapshot von writeSnapshot() ab der aktuellen Position wieder ein.
+    // Liefert false und ändert nichts, wenn er aus einem anderen Level stammt oder im
+    // endlosen Level der Bereich schon aus dem Ring gefallen ist. Eine laufende Aufnahme
+    // wird auf den Tick des Snapshots gekürzt.
+    public boolean readSnapshot(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.getInt() != SNAPSHOT_MAGIC)
+            throw new IllegalArgumentException("Not a simulation snapshot");
+
+        int switches = buffer.getInt();
+        long tick = buffer.getLong();
+        float offsetX = buffer.getFloat();
+        if (switches != levelSwitches || offsetX < level.getMinX()) {
+            buffer.position(start);
+            return false;
+        }
+
+        tickCount = tick;
+        level.offsetX = offsetX;
+        level.prevOffsetX = buffer.getFloat();
+        wadeTimer = buffer.getFloat();
+        player.readFrom(buffer);
+        particles.readFrom(buffer);
+        world.readFrom(buffer);
+
+        if (recorder != null) {
+            recorder.truncate(tickCount);
+        }
+        return true;
+    }
+
+    // Snapshot nach buffer ab Position 0, danach bereit für readSnapshot(). Reicht buffer
+    // nicht (oder null), wird ein größerer angelegt und zurückgegeben.
+    public ByteBuffer saveSnapshot(ByteBuffer buffer) {
+        int size = getSnapshotSize();
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(size * 2).order(ByteOrder.nativeOrder());
+        }
+        buffer.clear();
+        writeSnapshot(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    // Gegenstück zu saveSnapshot()
+    public boolean restoreSnapshot(ByteBuffer buffer) {
+        return readSnapshot(buffer.rewind());
+    }
+
+    public NavigationService getNavigation() {
+        if (navigation == null) {
+            navigation = new NavigationService();
+            navigation.update(level);
+        }
+        return navigation;
+    }
+
+    public ParticleSystem getParticles() {
+        return particles;
+    }
+
+    public LevelSequence getSequence() {
+        return sequence;
+    }
+
+    public InputQueue getInputQueue() {
+        return inputQueue;
+    }
+
+    public void setRecorder(InputLog recorder) {
+        this.recorder = recorder;
+    }
+
+    public void setReplay(InputLog replay) {
+        this.replay = replay;
+    }
+
+    public InputLog getRecorder() {
+        return recorder;
+    }
+
+    // Hash über Tick und Zustand aller Entities, gleich für gleiche Eingabe
+    public long getStateHash() {
+        long hash = tickCount;
+        for (int i = 0; i < world.getCount(); i++) {
+            if (!world.isAlive(i))
+                continue;
+
+            hash = hash * 31 + i;
+            hash = hash * 31 + Float.floatToIntBits(world.x[i]);
+            hash = hash * 31 + Float.floatToIntBits(world.y[i]);
+            hash = hash * 31 + Float.floatToIntBits(world.velX[i]);
+            hash = hash * 31 + Float.floatToIntBits(world.velY[i]);
+            hash = hash * 31 + world.flags[i];
+        }
+        // Bits durchmischen, damit kleine Unterschiede den ganzen Hash ändern
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public EntityWorld getWorld() {
+        return world;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public float getDt() {
+        return dt;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+}
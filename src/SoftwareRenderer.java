@@ -0,0 +1,247 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Zeichnet einen Frame ohne Java2D direkt in die int-Pixel eines TYPE_INT_RGB-Bildes und
+// gibt ihn mit einem einzigen drawImage aus. Gedacht für Rechner ohne GPU (Server, VMs),
+// wo Java2D bei vielen kleinen drawImage-Aufrufen auf langsame generische Schleifen fällt.
+//
+// Jedes Bild wird beim ersten Zeichnen in ein Sprite umgewandelt: Pixel als int[] und pro
+// Zeile der sichtbare Bereich samt der Angabe, ob er ganz deckend ist. Deckende Zeilen
+// (Tiles fast immer) gehen per System.arraycopy, die übrigen Pixel für Pixel mit Alpha.
+// Auswahl per -Dplatformer.renderer=software, siehe GameRenderer.
+public class SoftwareRenderer {
+    private final Simulation simulation;
+    private final int width;
+    private final int height;
+    private final BufferedImage frame;
+    private final int[] pixels;
+
+    // Bild -> Sprite, Bilder werden vom AssetManager geteilt und nie verändert. Wird beim
+    // Levelwechsel geleert, sonst hielte sie die Tiles aller bisherigen Level fest.
+    private final Map<BufferedImage, Sprite> sprites = new IdentityHashMap<>();
+    private Level level = null;
+    private final int[] particleColors;
+
+    public SoftwareRenderer(Simulation simulation, int width, int height) {
+        this.simulation = simulation;
+        this.width = width;
+        this.height = height;
+        this.frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+
+        particleColors = new int[GameRenderer.PARTICLE_COLORS.length];
+        for (int i = 0; i < particleColors.length; i++) {
+            particleColors[i] = GameRenderer.PARTICLE_COLORS[i].getRGB();
+        }
+    }
+
+    // Zeichnet den Frame und gibt ihn auf g2d aus. frame: Animationsschritt der Tiles.
+    public void draw(Graphics2D g2d, float alpha, int offsetX, int animationFrame, BufferedImage[] entitySprites) {
+        if (simulation.getLevel() != level) {
+            level = simulation.getLevel();
+            sprites.clear();
+        }
+
+        drawLevel(level, offsetX, animationFrame);
+        drawEntities(simulation.getWorld(), entitySprites, alpha, offsetX);
+        drawParticles(simulation.getParticles(), alpha, offsetX);
+
+        Player player = simulation.getPlayer();
+        blit(sprite(player.getImage()), (int) (player.getRenderX(alpha) - offsetX), (int) player.getRenderY(alpha));
+
+        g2d.drawImage(frame, 0, 0, null);
+    }
+
+    // Alle sichtbaren Tiles, Hintergrundebene zuerst. Der Frame wird nicht vorher gelöscht:
+    // Zellen mit deckendem Tile werden komplett überschrieben, nur die übrigen zuerst schwarz.
+    private void drawLevel(Level level, int offsetX, int animationFrame) {
+        int tileSize = level.tileSize;
+        int first = Math.max(level.getColumnStart(), offsetX / tileSize);
+        int last = Math.min(level.getColumnEnd() - 1, (offsetX + width - 1) / tileSize);
+        int levelHeight = level.getGridHeight() * tileSize;
+
+        // Außerhalb des Levels bleibt es schwarz
+        int left = first * tileSize - offsetX;
+        int right = (last + 1) * tileSize - offsetX;
+        fillRect(0, 0, left, height, 0xFF000000);
+        fillRect(right, 0, width - right, height, 0xFF000000);
+        fillRect(left, levelHeight, right - left, height - levelHeight, 0xFF000000);
+
+        for (int column = first; column <= last; column++) {
+            int x = column * tileSize - offsetX;
+            for (int row = 0; row < level.getGridHeight(); row++) {
+                int y = row * tileSize;
+                int tileIndex = level.getTileIndex(column, row);
+                Sprite tile = tileIndex >= 0 ? sprite(level.getTileFrame(tileIndex, animationFrame)) : null;
+                if (tile != null && tile.covers(tileSize)) {
+                    if (x >= 0 && x + tileSize <= width && y + tileSize <= height) {
+                        copyTile(tile, tileSize, x, y);
+                    } else {
+                        blit(tile, x, y);
+                    }
+                    continue;
+                }
+
+                fillRect(x, y, tileSize, tileSize, 0xFF000000);
+                int background = level.getBackgroundTileIndex(column, row);
+                if (background >= 0) {
+                    blit(sprite(level.getTileFrame(background, animationFrame)), x, y);
+                }
+                if (tile != null) {
+                    blit(tile, x, y);
+                }
+            }
+        }
+    }
+
+    private void drawEntities(EntityWorld world, BufferedImage[] entitySprites, float alpha, int offsetX) {
+        for (int id = 0; id < world.getCount(); id++) {
+            if (!world.isAlive(id))
+                continue;
+
+            int spriteId = world.getSprite(id);
+            if (spriteId == EntityWorld.NO_SPRITE || spriteId >= entitySprites.length || entitySprites[spriteId] == null)
+                continue;
+
+            blit(sprite(entitySprites[spriteId]), (int) (world.getRenderX(id, alpha) - offsetX),
+                    (int) world.getRenderY(id, alpha));
+        }
+    }
+
+    private void drawParticles(ParticleSystem particles, float alpha, int offsetX) {
+        for (int i = 0; i < particles.count; i++) {
+            float x = particles.prevX[i] + (particles.x[i] - particles.prevX[i]) * alpha - offsetX;
+            float y = particles.prevY[i] + (particles.y[i] - particles.prevY[i]) * alpha;
+            fillRect((int) x, (int) y, GameRenderer.PARTICLE_SIZE, GameRenderer.PARTICLE_SIZE,
+                    particleColors[GameRenderer.particleColor(particles, i)]);
+        }
+    }
+
+    private Sprite sprite(BufferedImage image) {
+        Sprite sprite = sprites.get(image);
+        if (sprite == null) {
+            sprite = new Sprite(image);
+            sprites.put(image, sprite);
+        }
+        return sprite;
+    }
+
+    // Sprite an (dx, dy), abgeschnitten am Bildrand
+    private void blit(Sprite sprite, int dx, int dy) {
+        int firstRow = Math.max(0, -dy);
+        int lastRow = Math.min(sprite.height, height - dy);
+        for (int y = firstRow; y < lastRow; y++) {
+            int start = Math.max(sprite.rowStart[y], -dx);
+            int end = Math.min(sprite.rowEnd[y], width - dx);
+            if (start >= end)
+                continue;
+
+            int src = y * sprite.width;
+            int dst = (dy + y) * width + dx;
+            if (sprite.rowOpaque[y]) {
+                System.arraycopy(sprite.pixels, src + start, pixels, dst + start, end - start);
+                continue;
+            }
+
+            for (int x = start; x < end; x++) {
+                int argb = sprite.pixels[src + x];
+                int a = argb >>> 24;
+                if (a == 255) {
+                    pixels[dst + x] = argb;
+                } else if (a != 0) {
+                    pixels[dst + x] = blend(argb, a, pixels[dst + x]);
+                }
+            }
+        }
+    }
+
+    // Deckendes Tile ganz im Bild: nur Zeilen kopieren, ohne Abschneiden und Alpha
+    private void copyTile(Sprite tile, int size, int x, int y) {
+        int src = 0;
+        int dst = y * width + x;
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(tile.pixels, src, pixels, dst, size);
+            src += tile.width;
+            dst += width;
+        }
+    }
+
+    // Rechteck in einer Farbe mit Alpha, abgeschnitten am Bildrand
+    private void fillRect(int x, int y, int w, int h, int argb) {
+        int x0 = Math.max(0, x);
+        int x1 = Math.min(width, x + w);
+        int y0 = Math.max(0, y);
+        int y1 = Math.min(height, y + h);
+        int a = argb >>> 24;
+        for (int row = y0; row < y1; row++) {
+            int line = row * width;
+            for (int col = x0; col < x1; col++) {
+                pixels[line + col] = a == 255 ? argb : blend(argb, a, pixels[line + col]);
+            }
+        }
+    }
+
+    // src mit Deckkraft a über dst, Rot/Blau und Grün jeweils in einer Multiplikation
+    private static int blend(int src, int a, int dst) {
+        int inv = 255 - a;
+        int rb = (((src & 0xFF00FF) * a + (dst & 0xFF00FF) * inv) >>> 8) & 0xFF00FF;
+        int g = (((src & 0x00FF00) * a + (dst & 0x00FF00) * inv) >>> 8) & 0x00FF00;
+        return rb | g;
+    }
+
+    // Bild als int-Pixel (ARGB, nicht vormultipliziert) mit vorberechneten Zeilen
+    static final class Sprite {
+        final int width;
+        final int height;
+        final int[] pixels;
+        // Erste und hinter der letzten nicht durchsichtigen Spalte je Zeile
+        final int[] rowStart;
+        final int[] rowEnd;
+        // Ob die Zeile zwischen rowStart und rowEnd ganz deckend ist
+        final boolean[] rowOpaque;
+        // Alle Zeilen über die volle Breite deckend
+        private final boolean opaque;
+
+        Sprite(BufferedImage image) {
+            width = image.getWidth();
+            height = image.getHeight();
+            pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            rowStart = new int[height];
+            rowEnd = new int[height];
+            rowOpaque = new boolean[height];
+
+            for (int y = 0; y < height; y++) {
+                int start = width;
+                int end = 0;
+                boolean opaque = true;
+                for (int x = 0; x < width; x++) {
+                    int a = pixels[y * width + x] >>> 24;
+                    if (a != 0) {
+                        start = Math.min(start, x);
+                        end = x + 1;
+                    }
+                }
+                for (int x = start; x < end; x++) {
+                    opaque &= (pixels[y * width + x] >>> 24) == 255;
+                }
+                rowStart[y] = start;
+                rowEnd[y] = end;
+                rowOpaque[y] = opaque && start < end;
+            }
+
+            boolean all = true;
+            for (int y = 0; y < height; y++) {
+                all &= rowOpaque[y] && rowStart[y] == 0 && rowEnd[y] == width;
+            }
+            this.opaque = all;
+        }
+
+        // Ob das Sprite eine Zelle der Größe size vollständig deckt
+        boolean covers(int size) {
+            return opaque && width >= size && height >= size;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+// Soundausgabe mit vorab dekodierten Effekten und wiederverwendeten Clips.
+// Die Spielschleife legt nur Abspielwünsche in eine Queue, geöffnet und
+// gestartet werden die Clips auf einem eigenen Thread. Ohne Audiogerät
+// (oder mit -Dplatformer.audio=off) läuft alles stumm weiter.
+public class SoundEngine implements Runnable {
+    public static final int SOUNDTRACK = 0;
+    public static final int JUMP = 1;
+
+    private static final String[] SOUND_FILES = {
+            "assets/Sound/soundtrack.wav",
+            "assets/Sound/jump1.wav"
+    };
+
+    // Gleichzeitig spielbare Instanzen pro Effekt
+    private static final int[] VOICES = {1, 4};
+    private static final int QUEUE_SIZE = 32;
+
+    private static SoundEngine instance;
+
+    private final boolean audioEnabled;
+    private final Clip[][] voices = new Clip[SOUND_FILES.length][];
+    private final int[] nextVoice = new int[SOUND_FILES.length];
+
+    // Integer-Werte < 128 sind gecached, play() erzeugt also keinen Müll
+    private final BlockingQueue<Integer> requests = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final AtomicLong playedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile boolean running = true;
+    private final Thread thread;
+
+    public static synchronized SoundEngine getInstance() {
+        if (instance == null) {
+            instance = new SoundEngine(!"off".equals(System.getProperty("platformer.audio")));
+        }
+        return instance;
+    }
+
+    private SoundEngine(boolean audioEnabled) {
+        this.audioEnabled = audioEnabled && preload();
+        if (!this.audioEnabled) {
+            System.out.println("Audio not available, sound effects are muted");
+        }
+
+        thread = new Thread(this, "sound-mixer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Alle Effekte einmal dekodieren und auf Clips verteilen
+    private boolean preload() {
+        boolean anyLoaded = false;
+
+        for (int id = 0; id < SOUND_FILES.length; id++) {
+            try {
+                AudioInputStream stream = decode(new File(SOUND_FILES[id]));
+                AudioFormat format = stream.getFormat();
+                byte[] pcm = stream.readAllBytes();
+                stream.close();
+
+                voices[id] = new Clip[VOICES[id]];
+                for (int v = 0; v < VOICES[id]; v++) {
+                    Clip clip = AudioSystem.getClip();
+                    // Vor open() eintragen, damit closeClips() ihn auch bei einem Fehler schließt
+                    voices[id][v] = clip;
+                    clip.open(format, pcm, 0, pcm.length);
+                }
+                anyLoaded = true;
+            } catch (IOException | UnsupportedAudioFileException e) {
+                System.out.println("Could not load sound " + SOUND_FILES[id] + ": " + e.getMessage());
+            } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+                // Kein (passendes) Audiogerät, z.B. auf einem Server
+                System.out.println("No audio line for " + SOUND_FILES[id] + ": " + e.getMessage());
+                // Bereits geöffnete Clips geben ihre Lines sonst nie wieder frei
+                closeClips();
+                return false;
+            }
+        }
+        return anyLoaded;
+    }
+
+    // Liefert den Stream als unkomprimiertes 16-bit PCM
+    private static AudioInputStream decode(File file) throws IOException, UnsupportedAudioFileException {
+        AudioInputStream source = AudioSystem.getAudioInputStream(file);
+        AudioFormat format = source.getFormat();
+        if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED && format.getSampleSizeInBits() == 16) {
+            return source;
+        }
+
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(pcm, source);
+    }
+
+    // Blockiert nie: ist die Queue voll, wird der Wunsch verworfen
+    public void play(int soundId) {
+        if (!requests.offer(soundId)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    public boolean isAudioEnabled() {
+        return audioEnabled;
+    }
+
+    public long getPlayedCount() {
+        return playedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                int soundId = requests.take();
+                if (audioEnabled && voices[soundId] != null) {
+                    start(soundId);
+                }
+                playedCount.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Nächsten freien Clip nehmen, sonst den ältesten neu starten
+    private void start(int soundId) {
+        Clip[] pool = voices[soundId];
+        int index = nextVoice[soundId];
+        for (int i = 0; i < pool.length; i++) {
+            int candidate = (nextVoice[soundId] + i) % pool.length;
+            if (!pool[candidate].isActive()) {
+                index = candidate;
+                break;
+            }
+        }
+        nextVoice[soundId] = (index + 1) % pool.length;
+
+        Clip clip = pool[index];
+        clip.stop();
+        clip.setFramePosition(0);
+        clip.start();
+    }
+
+    public void shutdown() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        closeClips();
+    }
+
+    // Schließt alle Clips, auch aus nur teilweise gefüllten Pools
+    private void closeClips() {
+        for (int id = 0; id < voices.length; id++) {
+            if (voices[id] == null)
+                continue;
+            for (Clip clip : voices[id]) {
+                if (clip != null) {
+                    clip.close();
+                }
+            }
+            voices[id] = null;
+        }
+    }
+}
@@ -26,4 +26,32 @@ public class Vec2 {
     public Vec2 div(Vec2 b) {
         return new Vec2(x / b.x, y / b.y);
     }
+
+    // Varianten ohne Allokation: Ergebnis landet in out, out wird zurückgegeben.
+    // out darf auch this oder b sein.
+    public Vec2 set(float x, float y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Vec2 add(Vec2 b, Vec2 out) {
+        return out.set(x + b.x, y + b.y);
+    }
+
+    public Vec2 sub(Vec2 b, Vec2 out) {
+        return out.set(x - b.x, y - b.y);
+    }
+
+    public Vec2 mul(Vec2 b, Vec2 out) {
+        return out.set(x * b.x, y * b.y);
+    }
+
+    public Vec2 mul(float m, Vec2 out) {
+        return out.set(x * m, y * m);
+    }
+
+    public Vec2 div(Vec2 b, Vec2 out) {
+        return out.set(x / b.x, y / b.y);
+    }
 }
\ No newline at end of file